@@ -0,0 +1,109 @@
+//  Small benchmark harness shared by the benchmarks in this directory.  Each benchmark is an
+//  operation which is run over and over for a fixed time per iteration, first for a few warmup
+//  iterations which are thrown away, then for the measured ones.  Alongside the time per
+//  operation it reports what a GC and allocation profiler would: the bytes allocated per
+//  operation by the benchmarking thread, and the number of collections and time spent in them.
+//
+//  Settings, given as system properties:
+//    -Dbench.warmup=3        warmup iterations
+//    -Dbench.iterations=5    measured iterations
+//    -Dbench.millis=1000     length of each iteration in milliseconds
+//    -Dbench.filter=regex    only run benchmarks whose name matches
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+final class Bench {
+
+  private static final int WARMUP = Integer.getInteger("bench.warmup", 3);
+  private static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+  private static final long ITERATION_NANOS = Long.getLong("bench.millis", 1000) * 1000000L;
+  private static final Pattern FILTER = Pattern.compile(System.getProperty("bench.filter", ".*"));
+
+  private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  //  Results are folded into this field, so the JIT can not drop the work that produced them
+  static volatile long sink;
+
+  private Bench() {}
+
+  //  Prints the header of the table of results
+  static void header() {
+    System.out.println(String.format("%-44s %12s %10s %12s %8s %8s",
+        "benchmark", "ns/op", "error", "B/op", "gc", "gc ms"));
+  }
+
+  //  Runs the given operation, which returns a number derived from its work, and prints a row
+  static void run(String name, LongSupplier operation) {
+    if(!FILTER.matcher(name).find())
+      return;
+    for(int i = 0; i < WARMUP; i++)
+      iteration(operation);
+
+    double[] nanosPerOp = new double[ITERATIONS];
+    long operations = 0, allocated = 0;
+    long gcCount = -gcCount(), gcMillis = -gcMillis();
+    for(int i = 0; i < ITERATIONS; i++) {
+      long bytes = -allocatedBytes();
+      long start = System.nanoTime();
+      long done = iteration(operation);
+      nanosPerOp[i] = (System.nanoTime() - start) / (double) done;
+      allocated += bytes + allocatedBytes();
+      operations += done;
+    }
+    gcCount += gcCount();
+    gcMillis += gcMillis();
+
+    double mean = 0, variance = 0;
+    for(double value : nanosPerOp)
+      mean += value / ITERATIONS;
+    for(double value : nanosPerOp)
+      variance += (value - mean) * (value - mean) / Math.max(1, ITERATIONS - 1);
+    System.out.println(String.format("%-44s %12.1f %10.1f %12.1f %8d %8d",
+        name, mean, Math.sqrt(variance), allocated / (double) operations, gcCount, gcMillis));
+  }
+
+  //  Runs the operation until the iteration time is up and returns how often it ran
+  private static long iteration(LongSupplier operation) {
+    long end = System.nanoTime() + ITERATION_NANOS;
+    long done = 0, hash = 0;
+    do {
+      hash += operation.getAsLong();
+      done++;
+    } while(System.nanoTime() < end);
+    sink += hash;
+    return done;
+  }
+
+  private static long allocatedBytes() {
+    return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for(GarbageCollectorMXBean collector : COLLECTORS)
+      count += Math.max(0, collector.getCollectionCount());
+    return count;
+  }
+
+  private static long gcMillis() {
+    long millis = 0;
+    for(GarbageCollectorMXBean collector : COLLECTORS)
+      millis += Math.max(0, collector.getCollectionTime());
+    return millis;
+  }
+
+  //  Parses the sizes to benchmark from the command line, falling back to the given defaults
+  static int[] sizes(String[] args, int... defaults) {
+    if(args.length == 0)
+      return defaults;
+    int[] sizes = new int[args.length];
+    for(int i = 0; i < args.length; i++)
+      sizes[i] = (int) Double.parseDouble(args[i]);  //  accepts 1e6 as well as 1000000
+    return sizes;
+  }
+}
@@ -0,0 +1,133 @@
+//  Read scaling benchmark for ConcurrentSortedList against a SortedList guarded by one monitor,
+//  which is what Collections.synchronizedList gives.  Each thread runs a 95/5 read/write mix:
+//  reads are spread over get(index), lower and findInOrderPosition, writes add or remove a
+//  random element, so the size of the list stays roughly constant.
+//
+//  Usage: java ConcurrentSortedListBenchmark [size] [seconds per run] [thread counts...]
+//  e.g.   java ConcurrentSortedListBenchmark 1000000 5 1 2 4 8 16 32
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentSortedListBenchmark {
+
+  private static final int READ_PERCENTAGE = 95;
+
+  //The operations each benchmarked list has to offer..
+  private interface Target {
+    Integer get(int index);
+    Integer lower(Integer value);
+    int findInOrderPosition(Integer value);
+    void add(Integer value);
+    void remove(Integer value);
+    int size();
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    int size = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+    int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+    int[] threadCounts = { 1, 2, 4, 8, 16, 32 };
+    if(args.length > 2) {
+      threadCounts = new int[args.length - 2];
+      for(int i = 2; i < args.length; i++)
+        threadCounts[i - 2] = Integer.parseInt(args[i]);
+    }
+
+    System.out.println(String.format("%d elements, %d%% reads, %d cores", size, READ_PERCENTAGE,
+        Runtime.getRuntime().availableProcessors()));
+    System.out.println(String.format("%8s %20s %20s", "threads", "concurrent ops/s", "synchronized ops/s"));
+    for(int threads : threadCounts) {
+      double concurrent = run(concurrentTarget(size), size, threads, seconds);
+      double synchronizedList = run(synchronizedTarget(size), size, threads, seconds);
+      System.out.println(String.format("%8d %20.0f %20.0f", threads, concurrent, synchronizedList));
+    }
+  }
+
+  private static double run(Target target, int size, int threads, int seconds) throws InterruptedException {
+    LongAdder operations = new LongAdder();
+    CountDownLatch start = new CountDownLatch(1);
+    long runNanos = seconds * 1000000000L;
+    Thread[] workers = new Thread[threads];
+    for(int i = 0; i < threads; i++) {
+      workers[i] = new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+          start.await();
+        } catch(InterruptedException e) {
+          return;
+        }
+        long end = System.nanoTime() + runNanos;
+        long done = 0;
+        int sink = 0;
+        while((done & 1023) != 0 || System.nanoTime() < end) {
+          int dice = random.nextInt(100);
+          Integer value = random.nextInt(2 * size);
+          if(dice < READ_PERCENTAGE) {
+            switch(dice % 3) {
+              case 0: sink += getAnyElement(target, random); break;
+              case 1: Integer lower = target.lower(value); sink += (lower == null) ? 0 : lower; break;
+              default: sink += target.findInOrderPosition(value);
+            }
+          } else if((dice & 1) == 0) {
+            target.add(value);
+          } else {
+            target.remove(value);
+          }
+          done++;
+        }
+        operations.add(done);
+        if(sink == 42) System.out.print("");  //  Keep the reads from being optimised away
+      });
+      workers[i].start();
+    }
+    start.countDown();
+    for(Thread worker : workers)
+      worker.join();
+    return operations.sum() / (double) seconds;
+  }
+
+  //  Reads the element at a random index.  A concurrent remove may shrink the list between reading
+  //  its size and the element, in which case the read is retried with the new size
+  private static int getAnyElement(Target target, ThreadLocalRandom random) {
+    while(true) {
+      try {
+        return target.get(random.nextInt(Math.max(1, target.size())));
+      } catch(IllegalArgumentException | IndexOutOfBoundsException e) {
+        //  the index was valid for the size read, but no longer
+      }
+    }
+  }
+
+  private static Target concurrentTarget(int size) {
+    ConcurrentSortedList<Integer> list = new ConcurrentSortedList<>(Comparator.naturalOrder());
+    list.addAll(evenNumbers(size));
+    return new Target() {
+      public Integer get(int index) { return list.get(index); }
+      public Integer lower(Integer value) { return list.lower(value); }
+      public int findInOrderPosition(Integer value) { return list.findInOrderPosition(value); }
+      public void add(Integer value) { list.add(value); }
+      public void remove(Integer value) { list.remove(value); }
+      public int size() { return list.size(); }
+    };
+  }
+
+  private static Target synchronizedTarget(int size) {
+    SortedList<Integer> list = new SortedList<>(Comparator.naturalOrder(), evenNumbers(size));
+    return new Target() {
+      public synchronized Integer get(int index) { return list.get(index); }
+      public synchronized Integer lower(Integer value) { return list.lower(value); }
+      public synchronized int findInOrderPosition(Integer value) { return list.findInOrderPosition(value); }
+      public synchronized void add(Integer value) { list.add(value); }
+      public synchronized void remove(Integer value) { list.remove(value); }
+      public synchronized int size() { return list.size(); }
+    };
+  }
+
+  private static java.util.List<Integer> evenNumbers(int size) {
+    java.util.List<Integer> values = new java.util.ArrayList<>(size);
+    for(int i = 0; i < size; i++)
+      values.add(2 * i);
+    return values;
+  }
+}
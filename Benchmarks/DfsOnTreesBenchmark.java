@@ -0,0 +1,125 @@
+//  Benchmarks DfsOnTrees on graphs of n vertices and n edges, that is a tree plus one edge which
+//  closes a single cycle, the input of the Planet Distance problem:
+//    random - vertex i hangs off a random earlier vertex, so the tree is shallow.
+//    path   - the vertices form one long path, the deepest tree there is.
+//  "generateAdjList" builds the adjacency as one array per vertex from the edges, "generateCsr"
+//  as the two arrays of DfsOnTrees.Adjacency on one thread and "generateCsrParallel" on the
+//  common ForkJoinPool.  "depths" finds the cycle with the DFS and the distance of every vertex
+//  from it with the BFS, on an already built Adjacency, reusing one DfsOnTrees as a caller
+//  solving graph after graph would, and "depthsParallel" does the same with the parallel,
+//  direction-optimizing BFS.  "read" parses the input of one test case, n and then the n edges,
+//  with FastReader, and "readSplit" the way DfsOnTrees used to, with BufferedReader.readLine and
+//  String.split; "print" writes the distances as a line of the output with FastWriter, and
+//  "printConcat" with a PrintWriter printing " " + distance for each vertex.
+//
+//  Usage: java [-Dbench.filter=regex] DfsOnTreesBenchmark [sizes...]
+//  e.g.   java DfsOnTreesBenchmark 1e5 1e6 4e6
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class DfsOnTreesBenchmark {
+
+  public static void main(String[] args) {
+    Bench.header();
+    for(int size : Bench.sizes(args, 10000, 100000, 1000000)) {
+      benchmark("random", size, randomTree(size, new Random(42)));
+      benchmark("path", size, path(size));
+    }
+  }
+
+  private static void benchmark(String kind, int n, int[][] edges) {
+    String name = "DfsOnTrees." + kind + " n=" + n;
+    int[] from = edges[0], to = edges[1];
+    Bench.run(name + " generateAdjList", () -> DfsOnTrees.generateAdjList(n, from, to).length);
+    Bench.run(name + " generateCsr", () -> DfsOnTrees.generateCsr(n, from, to, false).targets.length);
+    Bench.run(name + " generateCsrParallel", () -> DfsOnTrees.generateCsr(n, from, to, true).targets.length);
+
+    DfsOnTrees.Adjacency adj = DfsOnTrees.generateCsr(n, from, to);
+    DfsOnTrees solver = new DfsOnTrees(false), parallel = new DfsOnTrees(true);
+    Bench.run(name + " depths", () -> solver.distances(adj)[n - 1]);
+    Bench.run(name + " depthsParallel", () -> parallel.distances(adj)[n - 1]);
+
+    byte[] input = input(n, from, to);
+    Bench.run(name + " read", () -> read(input));
+    Bench.run(name + " readSplit", () -> readSplit(input));
+    int[] depth = solver.distances(adj);
+    Bench.run(name + " print", () -> {
+      DfsOnTrees.printArr(0, depth, new FastWriter(OutputStream.nullOutputStream()));
+      return depth.length;
+    });
+    Bench.run(name + " printConcat", () -> {
+      PrintWriter out = new PrintWriter(OutputStream.nullOutputStream());
+      out.print("Case #" + 1 + ": ");
+      out.print(depth[0]);
+      for(int i = 1; i < depth.length; i++)
+        out.print(" " + depth[i]);
+      out.println();
+      out.flush();
+      return depth.length;
+    });
+  }
+
+  private static long read(byte[] input) {
+    try {
+      return DfsOnTrees.readGraph(new FastReader(new ByteArrayInputStream(input))).n;
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static long readSplit(byte[] input) {
+    try {
+      BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(input)));
+      int n = Integer.parseInt(in.readLine().trim());
+      int[] from = new int[n], to = new int[n];
+      for(int i = 0; i < n; i++) {
+        String[] token = in.readLine().trim().split(" ");
+        from[i] = Integer.parseInt(token[0]) - 1;
+        to[i] = Integer.parseInt(token[1]) - 1;
+      }
+      return from.length + to.length;
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  //  The input of a test case, n and then the edges one per line, vertices numbered from 1
+  private static byte[] input(int n, int[] from, int[] to) {
+    StringBuilder input = new StringBuilder().append(n).append('\n');
+    for(int i = 0; i < n; i++)
+      input.append(from[i] + 1).append(' ').append(to[i] + 1).append('\n');
+    return input.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  //  Vertex i is joined to a random vertex below i, and the last vertex to one more, closing a cycle
+  private static int[][] randomTree(int n, Random random) {
+    int[] from = new int[n], to = new int[n];
+    for(int i = 1; i < n; i++) {
+      from[i - 1] = i;
+      to[i - 1] = random.nextInt(i);
+    }
+    from[n - 1] = n - 1;
+    to[n - 1] = (to[n - 2] == 0) ? 1 : 0;  //  any vertex other than its parent
+    return new int[][] { from, to };
+  }
+
+  //  Path 0 - 1 - ... - (n - 1) with the cycle 0 - 1 - 2 - 0 at the start, so the DFS from
+  //  vertex 0 walks the whole path before it meets the cycle
+  private static int[][] path(int n) {
+    int[] from = new int[n], to = new int[n];
+    for(int i = 1; i < n; i++) {
+      from[i - 1] = i - 1;
+      to[i - 1] = i;
+    }
+    from[n - 1] = 2;
+    to[n - 1] = 0;
+    return new int[][] { from, to };
+  }
+}
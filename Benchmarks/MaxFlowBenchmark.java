@@ -0,0 +1,119 @@
+//  Benchmarks the maximum flow solvers used by SimplifyDebts, Dinic's and push-relabel, on these
+//  kinds of graph:
+//    random  - n vertices and 4n edges between random vertices, source 0 and sink n - 1.
+//    layered - sqrt(n) layers of sqrt(n) vertices, each vertex joined to 4 random vertices of the
+//              next layer, with the source feeding the first layer and the last feeding the sink.
+//    debts   - a group of n people each owing 16 random others, flow going from the debtor to
+//              the creditor of the first debt, as when SimplifyDebts settles it.
+//  Capacities are random in [1, 100], or for the "wide" variants and the debts spread over
+//  [1, 1e8] the way amounts from cents to millions are.  Every operation builds a fresh solver
+//  from the edges and solves it, so "build" is also measured on its own to tell the two costs
+//  apart.  "dinics" solves with Dinic's, "scaling" with Dinic's using capacity scaling and
+//  "pushRelabel" with push-relabel.
+//
+//  Usage: java [-Dbench.filter=regex] MaxFlowBenchmark [sizes...]
+//  e.g.   java MaxFlowBenchmark 1e3 1e4 1e5
+import java.util.Random;
+
+public class MaxFlowBenchmark {
+
+  private static final int DEGREE = 4;
+  private static final int DEBTS_PER_PERSON = 16;
+  private static final int MAX_CAPACITY = 100;
+
+  public static void main(String[] args) {
+    Bench.header();
+    for(int size : Bench.sizes(args, 1000, 10000, 100000)) {
+      benchmark("random", randomGraph(size, new Random(42), false));
+      benchmark("layered", layeredGraph(size, new Random(42), false));
+      benchmark("random-wide", randomGraph(size, new Random(42), true));
+      benchmark("layered-wide", layeredGraph(size, new Random(42), true));
+      benchmark("debts", debtGraph(size, new Random(42)));
+    }
+  }
+
+  private static void benchmark(String kind, Graph graph) {
+    String name = "MaxFlow." + kind + " n=" + graph.n + " m=" + graph.from.length;
+    Bench.run(name + " build", () -> System.identityHashCode(build(graph, new Dinics(graph.n, graph.labels))));
+    Bench.run(name + " dinics", () -> build(graph, new Dinics(graph.n, graph.labels)).getMaxFlow());
+    Bench.run(name + " scaling", () -> build(graph, new Dinics(graph.n, graph.labels, true)).getMaxFlow());
+    Bench.run(name + " pushRelabel", () -> build(graph, new PushRelabel(graph.n, graph.labels)).getMaxFlow());
+  }
+
+  private static NetworkFlowSolverBase build(Graph graph, NetworkFlowSolverBase solver) {
+    for(int i = 0; i < graph.from.length; i++)
+      solver.addEdge(graph.from[i], graph.to[i], graph.capacity[i]);
+    solver.setSource(graph.source);
+    solver.setSink(graph.sink);
+    return solver;
+  }
+
+  private static Graph randomGraph(int n, Random random, boolean wide) {
+    Graph graph = new Graph(n, DEGREE * n, 0, n - 1, wide);
+    for(int i = 0; i < graph.from.length; i++) {
+      int from = random.nextInt(n), to = random.nextInt(n - 1);
+      graph.set(i, from, (to >= from) ? to + 1 : to, random);
+    }
+    return graph;
+  }
+
+  private static Graph debtGraph(int n, Random random) {
+    Graph graph = new Graph(n, DEBTS_PER_PERSON * n, 0, 0, true);
+    for(int i = 0; i < graph.from.length; i++) {
+      int from = i / DEBTS_PER_PERSON, to = random.nextInt(n - 1);
+      graph.set(i, from, (to >= from) ? to + 1 : to, random);
+    }
+    return graph.withSourceAndSink(graph.from[0], graph.to[0]);
+  }
+
+  private static Graph layeredGraph(int n, Random random, boolean wide) {
+    int width = Math.max(1, (int) Math.sqrt(n)), layers = Math.max(1, (n - 2) / width);
+    int vertices = layers * width + 2, source = vertices - 2, sink = vertices - 1;
+    Graph graph = new Graph(vertices, 2 * width + (layers - 1) * width * DEGREE, source, sink, wide);
+    int edge = 0;
+    for(int i = 0; i < width; i++) {
+      graph.set(edge++, source, i, random);
+      graph.set(edge++, (layers - 1) * width + i, sink, random);
+    }
+    for(int layer = 0; layer + 1 < layers; layer++)
+      for(int i = 0; i < width; i++)
+        for(int k = 0; k < DEGREE; k++)
+          graph.set(edge++, layer * width + i, (layer + 1) * width + random.nextInt(width), random);
+    return graph;
+  }
+
+  //  Edges of a flow network kept in plain arrays, so building the solver is all that is measured
+  private static final class Graph {
+    final int n;
+    int source, sink;
+    final boolean wide;
+    final String[] labels;
+    final int[] from, to;
+    final long[] capacity;
+
+    Graph(int n, int m, int source, int sink, boolean wide) {
+      this.n = n;
+      this.wide = wide;
+      this.source = source;
+      this.sink = sink;
+      labels = new String[n];
+      for(int i = 0; i < n; i++)
+        labels[i] = String.valueOf(i);
+      from = new int[m];
+      to = new int[m];
+      capacity = new long[m];
+    }
+
+    Graph withSourceAndSink(int source, int sink) {
+      this.source = source;
+      this.sink = sink;
+      return this;
+    }
+
+    void set(int edge, int from, int to, Random random) {
+      this.from[edge] = from;
+      this.to[edge] = to;
+      this.capacity[edge] = wide ? (long) Math.pow(10, 8 * random.nextDouble()) : 1 + random.nextInt(MAX_CAPACITY);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+//  Benchmarks the min-cost max-flow solver, by successive shortest paths ("minCost") and by cost
+//  scaling ("costScaling"), against Dinic's, which finds the same max flow without looking at
+//  costs, on graphs of m edges:
+//    random  - m / 4 vertices and m edges between random vertices, source 0 and sink n - 1.
+//    layered - layers of sqrt(m / 4) vertices, each vertex joined to 4 random vertices of the
+//              next layer, with the source feeding the first layer and the last feeding the sink.
+//  Capacities are random in [1, 100] and costs in [0, 100].  "fees" settles a group of m / 16
+//  people each owing 16 random others with SimplifyDebts.simplifyWithFees, the fee of each debt
+//  random in [0, 100].  Every operation builds a fresh solver from the edges and solves it.
+//
+//  Usage: java [-Dbench.filter=regex] MinCostFlowBenchmark [edges...]
+//  e.g.   java MinCostFlowBenchmark 1e3 1e4 1e5
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MinCostFlowBenchmark {
+
+  private static final int DEGREE = 4;
+  private static final int DEBTS_PER_PERSON = 16;
+  private static final int MAX_CAPACITY = 100;
+  private static final int MAX_COST = 100;
+
+  public static void main(String[] args) {
+    Bench.header();
+    for(int size : Bench.sizes(args, 1000, 10000, 100000)) {
+      benchmark("random", randomGraph(size, new Random(42)));
+      benchmark("layered", layeredGraph(size, new Random(42)));
+      benchmarkFees(size, new Random(42));
+    }
+  }
+
+  private static void benchmark(String kind, Graph graph) {
+    String name = "MinCostFlow." + kind + " n=" + graph.n + " m=" + graph.from.length;
+    Bench.run(name + " dinics", () -> build(graph, new Dinics(graph.n, graph.labels)).getMaxFlow());
+    Bench.run(name + " minCost", () -> build(graph, new MinCostMaxFlow(graph.n, graph.labels)).getMinCost());
+    Bench.run(name + " costScaling", () -> build(graph, new MinCostMaxFlow(graph.n, graph.labels, true)).getMinCost());
+  }
+
+  private static void benchmarkFees(int m, Random random) {
+    int n = Math.max(2, m / DEBTS_PER_PERSON);
+    String[] person = new String[n];
+    for(int i = 0; i < n; i++)
+      person[i] = String.valueOf(i);
+    List<Dinics.Edge> debts = new ArrayList<>(m);
+    for(int i = 0; i < m; i++) {
+      int from = i % n, to = random.nextInt(n - 1);
+      debts.add(new Dinics.Edge(from, (to >= from) ? to + 1 : to, 1 + random.nextInt(MAX_CAPACITY), random.nextInt(MAX_COST + 1)));
+    }
+    Bench.run("MinCostFlow.fees n=" + n + " m=" + m + " simplifyWithFees",
+        () -> SimplifyDebts.simplifyWithFees(person, debts).size());
+  }
+
+  private static NetworkFlowSolverBase build(Graph graph, NetworkFlowSolverBase solver) {
+    for(int i = 0; i < graph.from.length; i++)
+      solver.addEdge(graph.from[i], graph.to[i], graph.capacity[i], graph.cost[i]);
+    solver.setSource(graph.source);
+    solver.setSink(graph.sink);
+    return solver;
+  }
+
+  private static Graph randomGraph(int m, Random random) {
+    int n = Math.max(2, m / DEGREE);
+    Graph graph = new Graph(n, m, 0, n - 1);
+    for(int i = 0; i < m; i++) {
+      int from = random.nextInt(n), to = random.nextInt(n - 1);
+      graph.set(i, from, (to >= from) ? to + 1 : to, random);
+    }
+    return graph;
+  }
+
+  private static Graph layeredGraph(int m, Random random) {
+    int width = Math.max(1, (int) Math.sqrt(m / DEGREE)), layers = Math.max(1, (m - 2 * width) / (width * DEGREE) + 1);
+    int vertices = layers * width + 2, source = vertices - 2, sink = vertices - 1;
+    Graph graph = new Graph(vertices, 2 * width + (layers - 1) * width * DEGREE, source, sink);
+    int edge = 0;
+    for(int i = 0; i < width; i++) {
+      graph.set(edge++, source, i, random);
+      graph.set(edge++, (layers - 1) * width + i, sink, random);
+    }
+    for(int layer = 0; layer + 1 < layers; layer++)
+      for(int i = 0; i < width; i++)
+        for(int k = 0; k < DEGREE; k++)
+          graph.set(edge++, layer * width + i, (layer + 1) * width + random.nextInt(width), random);
+    return graph;
+  }
+
+  //  Edges of a flow network kept in plain arrays, so building the solver is all that is measured
+  private static final class Graph {
+    final int n, source, sink;
+    final String[] labels;
+    final int[] from, to;
+    final long[] capacity, cost;
+
+    Graph(int n, int m, int source, int sink) {
+      this.n = n;
+      this.source = source;
+      this.sink = sink;
+      labels = new String[n];
+      for(int i = 0; i < n; i++)
+        labels[i] = String.valueOf(i);
+      from = new int[m];
+      to = new int[m];
+      capacity = new long[m];
+      cost = new long[m];
+    }
+
+    void set(int edge, int from, int to, Random random) {
+      this.from[edge] = from;
+      this.to[edge] = to;
+      this.capacity[edge] = 1 + random.nextInt(MAX_CAPACITY);
+      this.cost[edge] = random.nextInt(MAX_COST + 1);
+    }
+  }
+}
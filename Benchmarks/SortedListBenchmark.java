@@ -0,0 +1,130 @@
+//  Benchmarks the operations of SortedList against the two usual alternatives, a TreeSet, which
+//  has no positional access, and an ArrayList kept sorted with Collections.binarySearch, which
+//  has slow insertion and removal.  The lists hold the even numbers below 2 * size, so looking
+//  up a random number below 2 * size misses about half of the time, and add/remove inserts an
+//  odd number and removes it again, leaving the size unchanged.
+//
+//  Usage: java [-Dbench.filter=regex] SortedListBenchmark [sizes...]
+//  e.g.   java -Xmx8g SortedListBenchmark 1e3 1e4 1e5 1e6 1e7
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class SortedListBenchmark {
+
+  public static void main(String[] args) {
+    Bench.header();
+    for(int size : Bench.sizes(args, 1000, 10000, 100000, 1000000)) {
+      List<Integer> values = new ArrayList<>(size);
+      for(int i = 0; i < size; i++)
+        values.add(2 * i);
+      Keys keys = new Keys(size);
+
+      SortedList<Integer> sortedList = new SortedList<>(Comparator.naturalOrder(), values);
+      benchmarkSortedList(sortedList, keys, size);
+      sortedList = null;
+
+      TreeSet<Integer> treeSet = new TreeSet<>(values);
+      benchmarkTreeSet(treeSet, keys, size);
+      treeSet = null;
+
+      benchmarkArrayList(new ArrayList<>(values), keys, size);
+    }
+  }
+
+  private static void benchmarkSortedList(SortedList<Integer> list, Keys keys, int size) {
+    String n = " n=" + size;
+    Bench.run("SortedList.addRemove" + n, () -> {
+      Integer value = keys.nextOdd();
+      list.add(value);
+      return list.remove(value) ? 1 : 0;
+    });
+    Bench.run("SortedList.get" + n, () -> list.get(keys.nextIndex()));
+    Bench.run("SortedList.lower" + n, () -> {
+      Integer lower = list.lower(keys.next());
+      return (lower == null) ? -1 : lower;
+    });
+    Bench.run("SortedList.findInOrderPosition" + n, () -> list.findInOrderPosition(keys.next()));
+    Bench.run("SortedList.iterate" + n, () -> {
+      long sum = 0;
+      for(Integer value : list)
+        sum += value;
+      return sum;
+    });
+  }
+
+  private static void benchmarkTreeSet(TreeSet<Integer> set, Keys keys, int size) {
+    String n = " n=" + size;
+    Bench.run("TreeSet.addRemove" + n, () -> {
+      Integer value = keys.nextOdd();
+      set.add(value);
+      return set.remove(value) ? 1 : 0;
+    });
+    Bench.run("TreeSet.lower" + n, () -> {
+      Integer lower = set.lower(keys.next());
+      return (lower == null) ? -1 : lower;
+    });
+    Bench.run("TreeSet.iterate" + n, () -> {
+      long sum = 0;
+      for(Integer value : set)
+        sum += value;
+      return sum;
+    });
+  }
+
+  private static void benchmarkArrayList(ArrayList<Integer> list, Keys keys, int size) {
+    String n = " n=" + size;
+    Bench.run("ArrayList.addRemove" + n, () -> {
+      Integer value = keys.nextOdd();
+      int position = -Collections.binarySearch(list, value) - 1;
+      list.add(position, value);
+      return list.remove(position);
+    });
+    Bench.run("ArrayList.get" + n, () -> list.get(keys.nextIndex()));
+    Bench.run("ArrayList.lower" + n, () -> {
+      int position = insertionPoint(list, keys.next());
+      return (position == 0) ? -1 : list.get(position - 1);
+    });
+    Bench.run("ArrayList.findInOrderPosition" + n, () -> {
+      int position = Collections.binarySearch(list, keys.next());
+      return (position < 0) ? -position - 2 : position;  //  same answer as SortedList for a miss
+    });
+    Bench.run("ArrayList.iterate" + n, () -> {
+      long sum = 0;
+      for(Integer value : list)
+        sum += value;
+      return sum;
+    });
+  }
+
+  //  Index of the first element not less than the given value
+  private static int insertionPoint(List<Integer> list, Integer value) {
+    int position = Collections.binarySearch(list, value);
+    return (position < 0) ? -position - 1 : position;
+  }
+
+  //  Precomputed random keys and indices, so the benchmarks do not measure the random generator
+  private static final class Keys {
+    private static final int MASK = (1 << 16) - 1;
+    private final Integer[] values = new Integer[MASK + 1];
+    private final Integer[] odd = new Integer[MASK + 1];
+    private final int[] indices = new int[MASK + 1];
+    private int cursor;
+
+    Keys(int size) {
+      Random random = new Random(42);
+      for(int i = 0; i <= MASK; i++) {
+        values[i] = random.nextInt(2 * size);
+        odd[i] = 2 * random.nextInt(size) + 1;
+        indices[i] = random.nextInt(size);
+      }
+    }
+
+    Integer next() { return values[cursor++ & MASK]; }
+    Integer nextOdd() { return odd[cursor++ & MASK]; }
+    int nextIndex() { return indices[cursor++ & MASK]; }
+  }
+}
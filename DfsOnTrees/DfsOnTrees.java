@@ -7,20 +7,109 @@ import java.util.*;
 import java.lang.*;
 import java.io.*;
 import java.math.*;
- 
+
 import java.util.*;
 import java.lang.*;
 import java.io.*;
- 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Each DfsOnTrees keeps the state of the graph it is working on in its own fields, and grows its
+// scratch arrays only when a graph is larger than any it has seen, so one instance can solve graph
+// after graph without allocating again.  An instance is not thread safe, but any number of them
+// can run at once on different threads, which is how distancesAll solves many graphs at once.
 @SuppressWarnings("unchecked")
 public class DfsOnTrees implements Runnable {
 
-  static int[] from, to;
+  // A graph of n nodes, numbered from 0, and the n edges from[i] - to[i].
+  public static final class Graph
+  {
+    public final int n;
+    public final int[] from, to;
+
+    public Graph(int n, int[] from, int[] to)
+    {
+      this.n = n;
+      this.from = from;
+      this.to = to;
+    }
+  }
+
+  // The adjacency lists of a graph of n nodes laid out in compressed sparse row form: the
+  // neighbours of node v are targets[offsets[v]] to targets[offsets[v + 1] - 1].  Two arrays in
+  // place of one array per node, so huge graphs cost two allocations and no per-node headers.
+  public static final class Adjacency
+  {
+    public final int[] offsets, targets;
+
+    public Adjacency(int[] offsets, int[] targets)
+    {
+      this.offsets = offsets;
+      this.targets = targets;
+    }
+
+    public int size()
+    {
+      return offsets.length - 1;
+    }
+  }
+
+  // Graphs with fewer edges than this are always built by one thread, the fork and join costing
+  // more than the work saved.
+  static final int PARALLEL_EDGES = 1 << 16;
 
-  static int nodeInCycle, nodeInCycleParent, qSize;
-  static int[] parent, depth, q;
-  static boolean[] visited;
-  static int[][] adj;
+  // Graphs with fewer nodes than this are searched breadth first by one thread, unless a parallel
+  // search was asked for.
+  static final int PARALLEL_NODES = 1 << 16;
+
+  // The parallel search turns bottom up once the edges out of the frontier are more than 1/ALPHA
+  // of those not yet explored, and top down again once the frontier holds fewer than 1/BETA of
+  // the nodes, the thresholds of Beamer, Asanovic and Patterson's direction-optimizing BFS.
+  static final int ALPHA = 14, BETA = 24;
+
+  // The least number of nodes of a frontier which the parallel search splits between threads
+  static final int PARALLEL_FRONTIER = 1024;
+
+  private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  // The nodes one chunk of a parallel search level reached, and the sum of their degrees
+  private static final class Chunk
+  {
+    final int[] nodes;
+    final int size;
+    final long edges;
+
+    Chunk(int[] nodes, int size, long edges)
+    {
+      this.nodes = nodes;
+      this.size = size;
+      this.edges = edges;
+    }
+  }
+
+  final int parallelNodes;
+  int nodeInCycle, nodeInCycleParent, qSize;
+  int[] depth;
+  int[] parent = new int[0], q = new int[0], stack = new int[0], position = new int[0];
+  boolean[] visited = new boolean[0];
+  long[] visitedBits = new long[0], frontierBits = new long[0], nextBits = new long[0];
+  int[] offsets, targets;
+
+  // Searches breadth first in parallel for graphs of PARALLEL_NODES nodes or more, when the
+  // common ForkJoinPool has more than one thread.
+  public DfsOnTrees()
+  {
+    parallelNodes = (ForkJoinPool.getCommonPoolParallelism() > 1) ? PARALLEL_NODES : Integer.MAX_VALUE;
+  }
+
+  // Searches breadth first in parallel for every graph, or never.
+  public DfsOnTrees(boolean parallel)
+  {
+    parallelNodes = parallel ? 0 : Integer.MAX_VALUE;
+  }
 
   public static int[][] generateAdjList(int n, int[] from, int[] to)
   {
@@ -40,35 +129,195 @@ public class DfsOnTrees implements Runnable {
     return g;
   }
 
-  public static void dfs(int cur, int parentVal)
-  { 
-    if(parent[cur] == -1)
+  // Builds the adjacency of a graph of n nodes with the edges from[i] - to[i], in parallel on the
+  // common ForkJoinPool when the graph is large and there is more than one thread to use.
+  public static Adjacency generateCsr(int n, int[] from, int[] to)
+  {
+    boolean parallel = from.length >= PARALLEL_EDGES && ForkJoinPool.getCommonPoolParallelism() > 1;
+    return generateCsr(n, from, to, parallel);
+  }
+
+  // Builds the adjacency of a graph of n nodes with the edges from[i] - to[i].  One thread lists
+  // the neighbours of every node in the same order as generateAdjList does.  In parallel, the
+  // degrees are counted and the neighbours scattered with atomic adds, chunks of the edges at a
+  // time, and the offsets summed with Arrays.parallelPrefix; the order of each node's neighbours
+  // then depends on the scheduling, but as the graph has a single cycle the distances do not.
+  public static Adjacency generateCsr(int n, int[] from, int[] to, boolean parallel)
+  {
+    int m = from.length;
+    int[] offsets = new int[n + 1], targets = new int[2 * m];
+    if(!parallel)
     {
-      parent[cur] = parentVal;
+      for (int f : from)
+        offsets[f + 1]++;
+      for (int t : to)
+        offsets[t + 1]++;
+      for (int i = 0; i < n; i++)
+        offsets[i + 1] += offsets[i];
+      int[] end = Arrays.copyOfRange(offsets, 1, n + 1);
+      for (int i = 0; i < m; i++)
+      {
+        targets[--end[from[i]]] = to[i];
+        targets[--end[to[i]]] = from[i];
+      }
+      return new Adjacency(offsets, targets);
     }
+
+    int chunks = 4 * ForkJoinPool.getCommonPoolParallelism(), chunk = (m + chunks - 1) / chunks;
+    IntStream.range(0, chunks).parallel().forEach(c ->
+    {
+      for (int i = c * chunk, end = Math.min(m, i + chunk); i < end; i++)
+      {
+        INTS.getAndAdd(offsets, from[i] + 1, 1);
+        INTS.getAndAdd(offsets, to[i] + 1, 1);
+      }
+    });
+    Arrays.parallelPrefix(offsets, Integer::sum);
+    int[] end = Arrays.copyOfRange(offsets, 1, n + 1);
+    IntStream.range(0, chunks).parallel().forEach(c ->
+    {
+      for (int i = c * chunk, last = Math.min(m, i + chunk); i < last; i++)
+      {
+        targets[(int) INTS.getAndAdd(end, from[i], -1) - 1] = to[i];
+        targets[(int) INTS.getAndAdd(end, to[i], -1) - 1] = from[i];
+      }
+    });
+    return new Adjacency(offsets, targets);
+  }
+
+  // Returns the distance of every node of the graph from its cycle, see distances(Adjacency).
+  public int[] distances(Graph graph)
+  {
+    return distances(generateCsr(graph.n, graph.from, graph.to));
+  }
+
+  // Returns the distance of every node from the cycle of a connected graph with as many edges as
+  // nodes.  The array returned belongs to the caller; only the scratch arrays are kept for the
+  // next call.
+  public int[] distances(Adjacency adj)
+  {
+    int n = adj.size();
+    ensureCapacity(n);
+    offsets = adj.offsets;
+    targets = adj.targets;
+    depth = new int[n];
+    Arrays.fill(parent, 0, n, -1);
+
+    nodeInCycle = -1;
+    nodeInCycleParent = -1;
+    dfs(0, 0);
+
+    parent[nodeInCycle] = nodeInCycleParent;
+
+    handleCycle(n);
+    if(n >= parallelNodes)
+      computeDepthsParallel();
     else
+      computeDepths();
+
+    int[] result = depth;
+    offsets = null;
+    targets = null;
+    depth = null;
+    return result;
+  }
+
+  // Grows the scratch arrays to hold n nodes, at least doubling them so a run of ever larger
+  // graphs only allocates a handful of times.
+  void ensureCapacity(int n)
+  {
+    if(parent.length >= n)
+      return;
+    int length = Math.max(n, 2 * parent.length);
+    parent = new int[length];
+    q = new int[length];
+    stack = new int[length];
+    position = new int[length];
+    visited = new boolean[length];
+  }
+
+  // Solves every graph in parallel on the common ForkJoinPool and returns their distances in the
+  // order of the graphs.  The graphs are split into a few runs of consecutive graphs per thread,
+  // and each run is solved by a DfsOnTrees of its own, which is dropped with its scratch arrays
+  // once the run is done.
+  public static List<int[]> distancesAll(List<Graph> graphs)
+  {
+    return distancesAll(graphs, ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  // As distancesAll(List), but on the given pool, to bound the threads used or keep the work off
+  // the common pool.
+  public static List<int[]> distancesAll(List<Graph> graphs, ForkJoinPool pool)
+  {
+    return pool.submit(() -> distancesAll(graphs, pool.getParallelism())).join();
+  }
+
+  private static List<int[]> distancesAll(List<Graph> graphs, int parallelism)
+  {
+    int size = graphs.size();
+    int[][] result = new int[size][];
+    int chunks = Math.min(size, 4 * parallelism), chunk = (size + chunks - 1) / Math.max(1, chunks);
+    IntStream.range(0, chunks).parallel().forEach(c ->
+    {
+      DfsOnTrees solver = new DfsOnTrees();
+      for (int i = c * chunk, end = Math.min(size, i + chunk); i < end; i++)
+        result[i] = solver.distances(graphs.get(i));
+    });
+    return Arrays.asList(result);
+  }
+
+  // Walks the tree from 'root' depth first, setting parent[] for every node reached, and records
+  // in nodeInCycle and nodeInCycleParent the first edge which leads back to a node already
+  // reached. The path from the root is kept on an explicit stack, along with how far through the
+  // adjacency list of each node on it the walk has got, so the depth of the tree is not limited by
+  // the call stack of the thread.
+  void dfs(int root, int rootParent)
+  {
+    if(parent[root] != -1)
     {
       if(nodeInCycle == -1)
       {
-        nodeInCycle = cur;
-        nodeInCycleParent = parentVal;
+        nodeInCycle = root;
+        nodeInCycleParent = rootParent;
       }
       return;
     }
+    parent[root] = rootParent;
 
-    for (int next : adj[cur])
+    int size = 0;
+    stack[size] = root;
+    position[size++] = offsets[root];
+    while(size > 0)
     {
-      if(parent[cur] != next)
+      int cur = stack[size - 1], i = position[size - 1], end = offsets[cur + 1];
+      while(i < end)
       {
-          dfs(next, cur);
+        int next = targets[i++];
+        if(parent[cur] == next)
+          continue;
+        if(parent[next] == -1)
+        {
+          parent[next] = cur;
+          stack[size] = next;
+          position[size++] = offsets[next];
+          break;
+        }
+        if(nodeInCycle == -1)
+        {
+          nodeInCycle = next;
+          nodeInCycleParent = cur;
+        }
       }
+      if(stack[size - 1] == cur)
+        size--;  // every neighbour has been walked
+      else
+        position[size - 2] = i;
     }
   }
 
-  public static void handleCycle(int n)
+  void handleCycle(int n)
   {
-    q = new int[n];
-    visited = new boolean[n];
+    Arrays.fill(visited, 0, n, false);
     int node = nodeInCycle;
     qSize = 0;
     while(parent[node] != nodeInCycle)
@@ -83,12 +332,13 @@ public class DfsOnTrees implements Runnable {
     visited[node] = true;
   }
 
-  public static void computeDepths()
+  void computeDepths()
   {
     for (int p = 0; p < qSize; p++) {
       int cur = q[p];
-      for (int next : adj[cur]) {
-        if (!visited[next]) 
+      for (int i = offsets[cur], end = offsets[cur + 1]; i < end; i++) {
+        int next = targets[i];
+        if (!visited[next])
         {
           depth[next] = depth[cur] + 1;
           visited[next] = true;
@@ -98,76 +348,213 @@ public class DfsOnTrees implements Runnable {
     }
   }
 
-  public static void printArr(int test, int[] arr, PrintWriter out)
+  // Finds the same depths as computeDepths, one level of the search at a time with the level
+  // split between the threads of the common ForkJoinPool.  Top down, each thread takes a share of
+  // the frontier and claims the unvisited neighbours of its nodes by setting their bits in a
+  // bitmap atomically.  Once the frontier is large, bottom up, each thread takes a share of the
+  // words of the bitmap and looks for a neighbour in the frontier for each unvisited node in them,
+  // so no two threads write the same word.  The depth of every node is its distance from the
+  // cycle either way, so the result does not depend on the scheduling.
+  void computeDepthsParallel()
   {
-    int n = arr.length;
+    int n = offsets.length - 1, words = (n + 63) >>> 6;
+    if(visitedBits.length < words)
+    {
+      int length = Math.max(words, 2 * visitedBits.length);
+      visitedBits = new long[length];
+      frontierBits = new long[length];
+      nextBits = new long[length];
+    }
+    Arrays.fill(visitedBits, 0, words, 0L);
 
-    out.print("Case #" + (test + 1) + ": ");
+    long frontierEdges = 0, unexplored = targets.length;
+    for (int p = 0; p < qSize; p++)
+    {
+      int v = q[p];
+      visitedBits[v >>> 6] |= 1L << v;
+      frontierEdges += offsets[v + 1] - offsets[v];
+    }
+    int size = qSize;
+    boolean bottomUp = false;
+    for (int level = 0; size > 0; level++)
+    {
+      unexplored -= frontierEdges;
+      if(!bottomUp && frontierEdges > unexplored / ALPHA)
+      {
+        Arrays.fill(frontierBits, 0, words, 0L);
+        for (int p = 0; p < size; p++)
+          frontierBits[q[p] >>> 6] |= 1L << q[p];
+        bottomUp = true;
+      }
+      else if(bottomUp && size < n / BETA)
+      {
+        size = 0;
+        for (int w = 0; w < words; w++)
+          for (long bits = frontierBits[w]; bits != 0; bits &= bits - 1)
+            q[size++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+        bottomUp = false;
+      }
 
-    out.print(arr[0]);
-    for(int i = 1; i < n; i++)
-      out.print(" " + arr[i]);
-    out.println();
-  }
- 
-  public static void main(String[] args) {
-      new Thread(null, new DfsOnTrees(), "whatever", 1<<26).start();
+      Chunk next = bottomUp ? bottomUpLevel(level, words) : topDownLevel(level, size);
+      size = next.size;
+      frontierEdges = next.edges;
+    }
   }
- 
-  public void run() {
-    BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
-    PrintWriter out = new PrintWriter(System.out);
- 
-    try
-    { 
-      int t,x1,n,m,i,j,k,ans,best,cur,sum;
-      String str;
-      String[] token;
- 
-      t=Integer.parseInt(in.readLine().trim());
- 
-      for(x1=0;x1<t;x1++) 
-      {
-        n=Integer.parseInt(in.readLine().trim());
 
-        from=new int[n];
-        to=new int[n];
-        depth = new int[n];
-        parent = new int[n];
-        visited = new boolean[n];
+  // Moves the search from the frontier q[0, size) to the nodes beyond it, which replace it in q.
+  // A frontier of fewer than PARALLEL_FRONTIER nodes, such as every level of a long path, is
+  // moved by this thread, as splitting it would cost more than the level itself.
+  private Chunk topDownLevel(int level, int size)
+  {
+    if(size < PARALLEL_FRONTIER)
+    {
+      int count = size;
+      long edges = 0;
+      for (int p = 0; p < size; p++)
+      {
+        int cur = q[p];
+        for (int i = offsets[cur], end = offsets[cur + 1]; i < end; i++)
+        {
+          int next = targets[i];
+          long bit = 1L << next;
+          if((visitedBits[next >>> 6] & bit) != 0)
+            continue;
+          visitedBits[next >>> 6] |= bit;
+          depth[next] = level + 1;
+          q[count++] = next;
+          edges += offsets[next + 1] - offsets[next];
+        }
+      }
+      System.arraycopy(q, size, q, 0, count - size);
+      return new Chunk(q, count - size, edges);
+    }
 
-        for(i = 0; i < n; i++)
+    int chunks = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(), size / PARALLEL_FRONTIER);
+    int chunk = (size + chunks - 1) / chunks;
+    Chunk[] reached = IntStream.range(0, chunks).parallel().mapToObj(c ->
+    {
+      int from = c * chunk, to = Math.min(size, from + chunk);
+      int[] nodes = new int[Math.max(16, to - from)];
+      int count = 0;
+      long edges = 0;
+      for (int p = from; p < to; p++)
+      {
+        int cur = q[p];
+        for (int i = offsets[cur], end = offsets[cur + 1]; i < end; i++)
         {
-          str = in.readLine().trim();
-          token = str.split(" ");
+          int next = targets[i];
+          long bit = 1L << next;
+          if((visitedBits[next >>> 6] & bit) != 0
+              || ((long) LONGS.getAndBitwiseOr(visitedBits, next >>> 6, bit) & bit) != 0)
+            continue;
+          depth[next] = level + 1;
+          if(count == nodes.length)
+            nodes = Arrays.copyOf(nodes, 2 * count);
+          nodes[count++] = next;
+          edges += offsets[next + 1] - offsets[next];
+        }
+      }
+      return new Chunk(nodes, count, edges);
+    }).toArray(Chunk[]::new);
+
+    int count = 0;
+    long edges = 0;
+    for (Chunk c : reached)
+    {
+      System.arraycopy(c.nodes, 0, q, count, c.size);
+      count += c.size;
+      edges += c.edges;
+    }
+    return new Chunk(q, count, edges);
+  }
 
-          from[i] = Integer.parseInt(token[0]) - 1;
-          to[i] = Integer.parseInt(token[1]) - 1;
+  // Moves the search from the nodes in frontierBits to their unvisited neighbours, which replace
+  // them in frontierBits
+  private Chunk bottomUpLevel(int level, int words)
+  {
+    int n = offsets.length - 1;
+    int chunks = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(), (words + 63) / 64);
+    int chunk = (words + chunks - 1) / chunks;
+    Chunk reached = IntStream.range(0, chunks).parallel().mapToObj(c ->
+    {
+      int count = 0;
+      long edges = 0;
+      for (int w = c * chunk, last = Math.min(words, w + chunk); w < last; w++)
+      {
+        long unvisited = ~visitedBits[w], found = 0;
+        if(w == words - 1 && (n & 63) != 0)
+          unvisited &= (1L << n) - 1;
+        for (; unvisited != 0; unvisited &= unvisited - 1)
+        {
+          int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+          for (int i = offsets[v], end = offsets[v + 1]; i < end; i++)
+          {
+            int u = targets[i];
+            if((frontierBits[u >>> 6] & (1L << u)) != 0)
+            {
+              depth[v] = level + 1;
+              found |= 1L << v;
+              count++;
+              edges += end - offsets[v];
+              break;
+            }
+          }
         }
+        visitedBits[w] |= found;
+        nextBits[w] = found;
+      }
+      return new Chunk(null, count, edges);
+    }).reduce(new Chunk(null, 0, 0), (a, b) -> new Chunk(null, a.size + b.size, a.edges + b.edges));
+
+    long[] bits = frontierBits;
+    frontierBits = nextBits;
+    nextBits = bits;
+    return reached;
+  }
+
+  // Reads the number of nodes n and then n edges, each as two node numbers counted from 1
+  public static Graph readGraph(FastReader in) throws IOException
+  {
+    int n = in.nextInt();
+    int[] from = new int[n], to = new int[n];
+    for(int i = 0; i < n; i++)
+    {
+      from[i] = in.nextInt() - 1;
+      to[i] = in.nextInt() - 1;
+    }
+    return new Graph(n, from, to);
+  }
 
-        adj = generateAdjList(n, from, to);
+  public static void printArr(int test, int[] arr, FastWriter out)
+  {
+    out.print("Case #").print(test + 1).print(": ");
+    out.print(arr, ' ');
+    out.println();
+  }
 
-        Arrays.fill(parent, -1);
+  public static void main(String[] args) {
+      new DfsOnTrees().run();
+  }
 
-        nodeInCycle = -1;
-        nodeInCycleParent = -1;
-        dfs(0, 0);
+  public void run() {
+    FastReader in = new FastReader(System.in);
+    FastWriter out = new FastWriter(System.out);
 
-        parent[nodeInCycle] = nodeInCycleParent;
+    try
+    {
+      int t,x1;
 
-        handleCycle(n);
-        computeDepths();
+      t=in.nextInt();
 
-        printArr(x1, depth, out);
-      }
+      for(x1=0;x1<t;x1++)
+        printArr(x1, distances(readGraph(in)), out);
 
- 
       out.flush();
       out.close();
     }
     catch(Exception e) {
       e.printStackTrace();
     }
- 
+
   }
-}
\ No newline at end of file
+}
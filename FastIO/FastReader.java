@@ -0,0 +1,177 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads whitespace separated numbers and words from a stream or a file, for programs whose input
+ * is large enough that reading it line by line with a BufferedReader, splitting the lines and
+ * parsing each piece dominates their running time.
+ *
+ * <p>The input is read through a heap buffer refilled from a channel, and {@link #nextInt} and
+ * {@link #nextLong} parse the digits where they lie in the buffer, so reading numbers allocates
+ * nothing. A token may be split over two reads of the channel, in which case what is left of the
+ * buffer is moved to its start before it is refilled, and the buffer grows to hold any token longer
+ * than it. Reading stdin through the channel only waits for as much input as there is, so prompts
+ * and answers can still be interleaved.
+ */
+public class FastReader implements Closeable {
+
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+
+  private final ReadableByteChannel channel;
+  private byte[] buffer;
+  private ByteBuffer wrapped;
+  private int position, limit;
+
+  /**
+   * Creates a reader of the given stream, such as System.in.
+   */
+  public FastReader(InputStream in) {
+    this(Channels.newChannel(in));
+  }
+
+  /**
+   * Creates a reader of the given file.
+   */
+  public FastReader(Path path) throws IOException {
+    this(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  private FastReader(ReadableByteChannel channel) {
+    this.channel = channel;
+    buffer = new byte[IO_BUFFER_SIZE];
+    wrapped = ByteBuffer.wrap(buffer);
+  }
+
+  /**
+   * Reads the next token as an int.
+   *
+   * @throws NumberFormatException if the token is not a whole number within the range of an int.
+   * @throws EOFException if there are no more tokens.
+   */
+  public int nextInt() throws IOException {
+    long value = nextLong();
+    if(value != (int) value) throw new NumberFormatException("Out of range of an int: " + value);
+    return (int) value;
+  }
+
+  /**
+   * Reads the next token as a long.
+   *
+   * @throws NumberFormatException if the token is not a whole number within the range of a long.
+   * @throws EOFException if there are no more tokens.
+   */
+  public long nextLong() throws IOException {
+    skipSpace();
+    boolean negative = buffer[position] == '-';
+    if(negative || buffer[position] == '+') {
+      position++;
+      if(position == limit) fill();
+    }
+    //  accumulated as a negative number, which has room for Long.MIN_VALUE
+    long value = 0;
+    int digits = 0;
+    if(limit - position > 18) {
+      //  18 digits cannot overflow, so while they are all in the buffer they need no checks
+      int start = position;
+      for(int end = position + 18; position < end; position++) {
+        int digit = buffer[position] - '0';
+        if(digit < 0 || digit > 9) break;
+        value = 10 * value - digit;
+      }
+      digits = position - start;
+    }
+    while(position < limit || fill()) {
+      int digit = buffer[position] - '0';
+      if(digit < 0 || digit > 9) {
+        if(!isSpace(buffer[position])) throw new NumberFormatException("Not a number at '" + (char) buffer[position] + "'");
+        break;
+      }
+      if(value < (Long.MIN_VALUE + digit) / 10) throw new NumberFormatException("Out of range of a long");
+      value = 10 * value - digit;
+      digits++;
+      position++;
+    }
+    if(digits == 0) throw new NumberFormatException("Not a number");
+    if(negative) return value;
+    if(value == Long.MIN_VALUE) throw new NumberFormatException("Out of range of a long");
+    return -value;
+  }
+
+  /**
+   * Reads the next token as a String, taking its bytes to be UTF-8.
+   *
+   * @throws EOFException if there are no more tokens.
+   */
+  public String next() throws IOException {
+    skipSpace();
+    int start = position;
+    while(true) {
+      while(position < limit && !isSpace(buffer[position])) position++;
+      if(position < limit) break;
+      int length = position - start;
+      boolean more = fill(start);
+      start = 0;
+      position = length;
+      if(!more) break;
+    }
+    return new String(buffer, start, position - start, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Closes the stream or file read.
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  //  Moves to the first byte of the next token, reading as much as needed to find one
+  private void skipSpace() throws IOException {
+    while(true) {
+      while(position < limit && isSpace(buffer[position])) position++;
+      if(position < limit) return;
+      if(!fill()) throw new EOFException("No more tokens");
+    }
+  }
+
+  //  Refills the buffer after the bytes already used up, returning false at the end of the input
+  private boolean fill() throws IOException {
+    return fill(position);
+  }
+
+  //  Moves the bytes from 'keep' on to the start of the buffer, growing it if they fill it, and
+  //  reads more after them, returning false at the end of the input.  position is then 0, the
+  //  first byte kept
+  private boolean fill(int keep) throws IOException {
+    int kept = limit - keep;
+    if(kept == buffer.length) {
+      buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+      wrapped = ByteBuffer.wrap(buffer);
+    } else {
+      System.arraycopy(buffer, keep, buffer, 0, kept);
+    }
+    wrapped.limit(buffer.length).position(kept);
+    int read;
+    do {
+      read = channel.read(wrapped);
+    } while(read == 0);
+    position = 0;
+    limit = kept + Math.max(read, 0);
+    return read > 0;
+  }
+
+  //  Spaces, tabs, line ends and any other control characters separate the tokens
+  private static boolean isSpace(byte b) {
+    return b >= 0 && b <= ' ';
+  }
+}
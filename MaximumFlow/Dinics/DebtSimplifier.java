@@ -0,0 +1,258 @@
+import java.util.*;
+
+/**
+ * Keeps the debts of a group simplified as transactions come in, rather than simplifying all of
+ * them again after every transaction. The simplified payments always form a forest in which only
+ * people with a nonzero balance take part, so there are at most k - 1 payments for k people with
+ * a nonzero balance, as with {@link NetBalanceSimplifier#simplifyGreedily}.
+ *
+ * <p>A new debt from a to b is handled as flow: when a and b are already linked by payments, the
+ * amount is pushed along the path of payments between them, which is the residual path of the
+ * current simplified graph, adding to the payments along its direction and taking off those
+ * against it; a payment which drops to zero disappears. Otherwise the debt simply joins the two
+ * trees. Whoever ends up with a zero balance is then taken out of the forest by paying what they
+ * receive straight on to those they pay.
+ *
+ * <p>Every payment goes from someone who owes money to someone who is owed money, so nobody is
+ * asked to pay more than they owe. Pushing a debt along an existing path can break this, leaving
+ * a person who is owed money paying someone on; the tree of the two people is then settled again
+ * from scratch by {@link NetBalanceSimplifier#simplifyGreedily} over its members.
+ *
+ * <p>Time Complexity: O(T) per transaction, or O(T log(T)) when the tree is settled again, T
+ * being the number of people in the trees of the two people involved, and O(P) to list the P
+ * payments
+ */
+public class DebtSimplifier {
+  //  balance[i] is positive when person i is owed money and negative when they owe money
+  private long[] balance = new long[16];
+
+  //  payments.get(u).get(v) is the amount u pays v, and is kept equal to -payments.get(v).get(u)
+  private final List<Map<Integer, Long>> payments = new ArrayList<>();
+
+  //  Every payment by its hash key, see getHashKeyForPayment, so all can be listed without a search
+  private final Map<Long, NetBalanceSimplifier.Payment> paymentsByKey = new LinkedHashMap<>();
+
+  //  Scratch space of the path search, see NetworkFlowSolverBase#visit for the visited token
+  private int[] visited = new int[16], parent = new int[16], queue = new int[16];
+  private int visitedToken = 1;
+
+  public static void main(String[] args) {
+    //  The transactions of the SimplifyDebts example, from my Medium blog post, as they come in
+    String[] person = { "Alice", "Bob", "Charlie", "David", "Ema", "Fred", "Gabe"};
+    int[][] transactions = { {1, 2, 40}, {2, 3, 20}, {3, 4, 50}, {5, 1, 10}, {5, 2, 30},
+                             {5, 3, 10}, {5, 4, 10}, {6, 1, 30}, {6, 3, 10} };
+    DebtSimplifier simplifier = new DebtSimplifier();
+    for(int[] transaction : transactions) {
+      simplifier.addTransaction(transaction[0], transaction[1], transaction[2]);
+      System.out.println(String.format("After %s ----%s----> %s:", person[transaction[0]], transaction[2], person[transaction[1]]));
+      for(NetBalanceSimplifier.Payment payment : simplifier.getSimplifiedEdges()) {
+        System.out.println(String.format("  %s ----%s----> %s", person[payment.from], payment.amount, person[payment.to]));
+      }
+    }
+
+    //  Settling the same balances at once by net balance takes as many payments moving as much
+    long[] balances = new long[person.length];
+    for(int i = 0; i < person.length; i++) balances[i] = simplifier.getBalance(i);
+    System.out.println(String.format("Incrementally: %s, by net balance: %s",
+        describe(simplifier.getSimplifiedEdges()), describe(NetBalanceSimplifier.simplifyGreedily(balances))));
+  }
+
+  //  The number of payments and the total amount they move
+  private static String describe(List<NetBalanceSimplifier.Payment> payments) {
+    long moved = 0;
+    for(NetBalanceSimplifier.Payment payment : payments) moved += payment.amount;
+    return payments.size() + " payments moving " + moved;
+  }
+
+  /**
+   * Records that one person owes another the given amount, and updates the simplified payments.
+   *
+   * @param from the person who owes the amount.
+   * @param to the person who is owed the amount.
+   * @param amount the amount owed.
+   */
+  public synchronized void addTransaction(int from, int to, long amount) {
+    if (from < 0 || to < 0) throw new IllegalArgumentException("People are numbered from 0");
+    if (amount < 0) throw new IllegalArgumentException("Amount < 0");
+    if (from == to || amount == 0) return;
+    ensureCapacity(Math.max(from, to) + 1);
+
+    balance[from] -= amount;
+    balance[to] += amount;
+    int[] path = findPath(from, to), tree;
+    if (path == null) {
+      setPayment(from, to, amount);
+      tree = treeOf(from);
+    } else {
+      tree = treeOf(from);  //  taken before the push, which may split the tree
+      for (int i = 0; i + 1 < path.length; i++) {
+        setPayment(path[i], path[i + 1], amountPaid(path[i], path[i + 1]) + amount);
+      }
+    }
+    if (balance[from] == 0) removeFromForest(from);
+    if (balance[to] == 0) removeFromForest(to);
+    if (!paidByDebtorsToCreditors(tree)) settleAgain(tree);
+  }
+
+  /**
+   * Returns the current simplified payments.
+   *
+   * @return the payments settling every balance.
+   */
+  public synchronized List<NetBalanceSimplifier.Payment> getSimplifiedEdges() {
+    return new ArrayList<>(paymentsByKey.values());
+  }
+
+  /**
+   * Returns the net balance of a person over all transactions so far.
+   *
+   * @param person the person.
+   * @return positive when the person is owed money, negative when they owe money.
+   */
+  public synchronized long getBalance(int person) {
+    return (person < payments.size()) ? balance[person] : 0;
+  }
+
+  //  Returns the people on the path of payments from 'from' to 'to', or null if there is none
+  private int[] findPath(int from, int to) {
+    visitedToken++;
+    visited[from] = visitedToken;
+    int size = 0;
+    queue[size++] = from;
+    for (int head = 0; head < size && visited[to] != visitedToken; head++) {
+      int person = queue[head];
+      for (int next : payments.get(person).keySet()) {
+        if (visited[next] != visitedToken) {
+          visited[next] = visitedToken;
+          parent[next] = person;
+          queue[size++] = next;
+        }
+      }
+    }
+    if (visited[to] != visitedToken) return null;
+
+    int length = 1;
+    for (int person = to; person != from; person = parent[person]) length++;
+    int[] path = new int[length];
+    for (int person = to, i = length - 1; i >= 0; person = parent[person], i--) path[i] = person;
+    return path;
+  }
+
+  //  Returns the people linked to the given person by payments, including them
+  private int[] treeOf(int person) {
+    visitedToken++;
+    visited[person] = visitedToken;
+    int size = 0;
+    queue[size++] = person;
+    for (int head = 0; head < size; head++) {
+      for (int next : payments.get(queue[head]).keySet()) {
+        if (visited[next] != visitedToken) {
+          visited[next] = visitedToken;
+          queue[size++] = next;
+        }
+      }
+    }
+    return Arrays.copyOf(queue, size);
+  }
+
+  //  Whether every payment of the given people goes from someone who owes money to someone who
+  //  is owed money
+  private boolean paidByDebtorsToCreditors(int[] people) {
+    for (int person : people) {
+      for (Map.Entry<Integer, Long> entry : payments.get(person).entrySet()) {
+        if (entry.getValue() > 0 && (balance[person] >= 0 || balance[entry.getKey()] <= 0)) return false;
+      }
+    }
+    return true;
+  }
+
+  //  Replaces the payments of the given people, whose balances sum to zero, by those settling
+  //  their balances greedily, largest debtor against largest creditor
+  private void settleAgain(int[] people) {
+    long[] left = new long[people.length];
+    for (int i = 0; i < people.length; i++) {
+      left[i] = balance[people[i]];
+      for (int other : new ArrayList<>(payments.get(people[i]).keySet())) setPayment(people[i], other, 0);
+    }
+    for (NetBalanceSimplifier.Payment payment : NetBalanceSimplifier.simplifyGreedily(left)) {
+      setPayment(people[payment.from], people[payment.to], payment.amount);
+    }
+  }
+
+  //  Reroutes the payments of a person with a zero balance, matching what they receive against
+  //  what they pay on, so that they no longer take part in any payment
+  private void removeFromForest(int person) {
+    Map<Integer, Long> own = payments.get(person);
+    if (own.isEmpty()) return;
+    List<Integer> payers = new ArrayList<>(), payees = new ArrayList<>();
+    List<Long> received = new ArrayList<>(), paid = new ArrayList<>();
+    for (Map.Entry<Integer, Long> entry : own.entrySet()) {
+      if (entry.getValue() < 0) {
+        payers.add(entry.getKey());
+        received.add(-entry.getValue());
+      } else {
+        payees.add(entry.getKey());
+        paid.add(entry.getValue());
+      }
+    }
+    for (int other : new ArrayList<>(own.keySet())) setPayment(person, other, 0);
+
+    //  The payers and payees lie in different trees now, so this links them back into one tree
+    long in = 0, out = 0;
+    for (int i = 0, j = 0; i < payers.size() && j < payees.size(); ) {
+      if (in == 0) in = received.get(i);
+      if (out == 0) out = paid.get(j);
+      long amount = Math.min(in, out);
+      setPayment(payers.get(i), payees.get(j), amount);
+      in -= amount;
+      out -= amount;
+      if (in == 0) i++;
+      if (out == 0) j++;
+    }
+  }
+
+  //  Returns the amount u pays v, negative if v pays u
+  private long amountPaid(int u, int v) {
+    Long amount = payments.get(u).get(v);
+    return (amount == null) ? 0 : amount;
+  }
+
+  //  Sets the amount u pays v, negative if v pays u, removing the payment if it is zero
+  private void setPayment(int u, int v, long amount) {
+    paymentsByKey.remove(getHashKeyForPayment(u, v));
+    paymentsByKey.remove(getHashKeyForPayment(v, u));
+    if (amount == 0) {
+      payments.get(u).remove(v);
+      payments.get(v).remove(u);
+      return;
+    }
+    payments.get(u).put(v, amount);
+    payments.get(v).put(u, -amount);
+    if (amount > 0) {
+      paymentsByKey.put(getHashKeyForPayment(u, v), new NetBalanceSimplifier.Payment(u, v, amount));
+    } else {
+      paymentsByKey.put(getHashKeyForPayment(v, u), new NetBalanceSimplifier.Payment(v, u, -amount));
+    }
+  }
+
+  private void ensureCapacity(int people) {
+    while (payments.size() < people) payments.add(new HashMap<>());
+    if (people > balance.length) {
+      int length = Math.max(people, 2 * balance.length);
+      balance = Arrays.copyOf(balance, length);
+      visited = Arrays.copyOf(visited, length);
+      parent = Arrays.copyOf(parent, length);
+      queue = Arrays.copyOf(queue, length);
+    }
+  }
+
+  /**
+  * Get a unique hash key for a payment
+  * @param u the person paying
+  * @param v the person being paid
+  * @return a unique hash key
+  */
+  private static long getHashKeyForPayment(int u, int v) {
+    return ((long) u << 32) | v;
+  }
+}
@@ -0,0 +1,142 @@
+import java.util.*;
+
+import static java.lang.Math.min;
+
+/**
+ * Implementation of Dinic's network flow algorithm. The algorithm works by first constructing a
+ * level graph using a BFS and then finding augmenting paths on the level graph using multiple DFSs.
+ *
+ * <p>With capacity scaling the level graph only admits edges with at least delta remaining
+ * capacity, starting from the largest power of two no more than the largest capacity and halving
+ * delta once no path is left, so large flows are pushed in few phases before small ones.
+ *
+ * <p>Time Complexity: O(EV²), or O(E²log(U)) with capacity scaling, U being the largest capacity
+ *
+ * @link https://github.com/williamfiset/Algorithms
+ */
+class Dinics extends NetworkFlowSolverBase {
+
+  private int[] level;
+  private final boolean capacityScaling;
+
+  // next[i] indicates the next unused edge index in the adjacency list for node i. This is part
+  // of the Shimon Even and Alon Itai optimization of pruning deads ends as part of the DFS phase.
+  private int[] next;
+
+  // Queue of the BFS. Every node enters it at most once per BFS, so it never needs to wrap around.
+  private int[] queue;
+
+  // path[0..depth-1] holds the edges of the path from the source currently being explored by the
+  // DFS, in place of the call stack of a recursive DFS.
+  private int[] path;
+
+  /**
+   * Creates an instance of a flow network solver. Use the {@link #addEdge} method to add edges to
+   * the graph.
+   *
+   * @param n - The number of nodes in the graph including source and sink nodes.
+   */
+  public Dinics(int n, String[] vertexLabels) {
+    this(n, vertexLabels, false);
+  }
+
+  /**
+   * Creates an instance of a flow network solver, which optionally uses capacity scaling. Use the
+   * {@link #addEdge} method to add edges to the graph.
+   *
+   * @param n - The number of nodes in the graph including source and sink nodes.
+   * @param capacityScaling - Whether to push flow along edges of large remaining capacity first.
+   */
+  public Dinics(int n, String[] vertexLabels, boolean capacityScaling) {
+    super(n, vertexLabels);
+    this.capacityScaling = capacityScaling;
+    level = new int[n];
+    path = new int[n];
+    next = new int[n];
+    queue = new int[n];
+  }
+
+  @Override
+  public void solve() {
+    for (long delta = capacityScaling ? initialDelta() : 1; delta > 0; delta >>= 1) {
+      while (bfs(delta)) {
+        System.arraycopy(adjacencyStart, 0, next, 0, n);
+        // Find max flow by adding the flows of all blocking flows.
+        maxFlow += blockingFlow(delta);
+      }
+    }
+
+    for (int i = 0; i < n; i++) if (level[i] != -1) minCut[i] = true;
+  }
+
+  // Returns the largest power of two which is no more than the largest capacity.
+  private long initialDelta() {
+    long largest = 1;
+    for (int e = 0; e < edgeCount; e += 2) largest = Math.max(largest, edgeCapacity[e]);
+    return Long.highestOneBit(largest);
+  }
+
+  // Do a BFS from source to sink and compute the depth/level of each node
+  // which is the minimum number of edges from that node to the source,
+  // only using edges with at least delta remaining capacity.
+  private boolean bfs(long delta) {
+    Arrays.fill(level, -1);
+    level[s] = 0;
+    int head = 0, tail = 0;
+    queue[tail++] = s;
+    while (head < tail) {
+      int node = queue[head++];
+      for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+        int edge = adjacencyEdges[i];
+        long cap = remainingCapacity(edge);
+        if (cap >= delta && level[edgeTo[edge]] == -1) {
+          level[edgeTo[edge]] = level[node] + 1;
+          queue[tail++] = edgeTo[edge];
+        }
+      }
+    }
+    return level[t] != -1;
+  }
+
+  // Finds a blocking flow in the level graph with an iterative DFS. Whenever the DFS reaches the
+  // sink it augments along the path and, rather than starting over from the source, retreats only
+  // to the start of the first edge the augmentation saturated, so that one traversal pushes flow
+  // down every branch of the level graph. Nodes with no edges left are pruned through next[].
+  // Edges with less than delta remaining capacity count as saturated.
+  private long blockingFlow(long delta) {
+    long flow = 0;
+    int depth = 0, at = s;
+    while (true) {
+      if (at == t) {
+        long bottleNeck = INF;
+        for (int i = 0; i < depth; i++) bottleNeck = min(bottleNeck, remainingCapacity(path[i]));
+        int saturated = -1;
+        for (int i = 0; i < depth; i++) {
+          augment(path[i], bottleNeck);
+          if (saturated == -1 && remainingCapacity(path[i]) < delta) saturated = i;
+        }
+        flow += bottleNeck;
+        depth = saturated;
+        at = edgeFrom(path[saturated]);
+        continue;
+      }
+
+      final int end = adjacencyStart[at + 1];
+      while (next[at] < end) {
+        int edge = adjacencyEdges[next[at]];
+        if (remainingCapacity(edge) >= delta && level[edgeTo[edge]] == level[at] + 1) break;
+        next[at]++;
+      }
+
+      if (next[at] < end) { // advance..
+        int edge = adjacencyEdges[next[at]];
+        path[depth++] = edge;
+        at = edgeTo[edge];
+      } else { // dead end, retreat and never come back here in this phase..
+        if (at == s) return flow;
+        at = edgeFrom(path[--depth]);
+        next[at]++;
+      }
+    }
+  }
+}
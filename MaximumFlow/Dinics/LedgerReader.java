@@ -0,0 +1,637 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Streams the transactions of a ledger file into the debt simplifiers, without building a list of
+ * transactions first. A ledger is either a CSV file, one transaction per line,
+ *
+ * <pre>
+ *   from,to,amount
+ *   Bob,Charlie,40
+ *   "Fred, Jr.",Bob,10
+ * </pre>
+ *
+ * where blank lines and lines starting with '#' are skipped and amounts are whole numbers. A first
+ * line none of whose fields is blank or a number is taken for a header and skipped as well. Or a ledger is
+ * a binary file written by {@link #writeBinary}, which starts with the bytes "LDGR" and then holds
+ * one record per transaction: the length of the from id as an unsigned short, its UTF-8 bytes, the
+ * same for the to id, and the amount as a long, all big-endian.
+ *
+ * <p>The format can be given to the reader. Otherwise a file is read as binary only when it starts
+ * with "LDGR" and its first record fits in the file and has an amount >= 0; any other file,
+ * including a CSV file which just happens to start with "LDGR", is read as CSV.
+ *
+ * <p>The file is read through a buffer refilled from a {@link FileChannel}, and each line is parsed
+ * where it lies in the buffer, so no String is made per line. Person ids are numbered from 0 in the
+ * order in which they first appear, and several debts of one person to another are added up into a
+ * single debt.
+ *
+ * <p>Only the people and the distinct debts are kept in memory, never the transactions. For
+ * ledgers whose distinct debts do not fit in memory either, {@link #simplifyInPasses} finds the
+ * groups of people with debts between them in a first pass and then simplifies as many groups at
+ * a time as fit within a given number of debts, reading the file once more for each batch.
+ */
+public class LedgerReader {
+
+  /**
+   * Receives the transactions of a ledger, the people numbered as in {@link #getPeople}.
+   */
+  public interface TransactionConsumer {
+    void accept(int from, int to, long amount);
+  }
+
+  /**
+   * The formats of a ledger file.
+   */
+  public enum Format { CSV, BINARY }
+
+  //  Roughly the memory one debt takes up from being read until it is simplified, as measured with the
+  //  Dinic's solver, which is used to size the passes of simplifyInPasses to the heap
+  private static final int BYTES_PER_DEBT = 512;
+
+  private static final int MAGIC = 0x4C444752;  //  "LDGR"
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+
+  private final Path path;
+  private final Format format;
+  private final People people = new People();
+
+  /**
+   * Creates a reader of the given ledger file, which is not read until one of the methods below is
+   * called. Each of them reads the whole file again, telling its format from its first bytes.
+   *
+   * @param path the CSV or binary ledger file.
+   */
+  public LedgerReader(Path path) {
+    this(path, null);
+  }
+
+  /**
+   * Creates a reader of the given ledger file in the given format, see {@link #LedgerReader(Path)}.
+   *
+   * @param path the ledger file.
+   * @param format the format of the file, or null to tell it from the first bytes of the file.
+   */
+  public LedgerReader(Path path, Format format) {
+    this.path = path;
+    this.format = format;
+  }
+
+  /**
+   * Returns the ids of the people seen so far, person i having the i-th id.
+   *
+   * @return the ids of the people.
+   */
+  public String[] getPeople() {
+    return people.ids();
+  }
+
+  /**
+   * Returns the id of the given person, without making the ids of all people as {@link #getPeople}
+   * does.
+   *
+   * @param person the number of the person.
+   * @return the id of the person.
+   */
+  public String getPerson(int person) {
+    if(person < 0 || person >= people.size()) throw new IndexOutOfBoundsException("No person " + person);
+    return people.id(person);
+  }
+
+  /**
+   * Reads the ledger, handing every transaction to the given consumer as it is read.
+   *
+   * @param transactions the consumer of the transactions, in the order of the file.
+   * @throws IOException if the file can not be read or is not a ledger.
+   */
+  public void forEach(TransactionConsumer transactions) throws IOException {
+    try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      boolean binary = (format == null) ? isBinary(channel) : format == Format.BINARY;
+      if(binary && format != null && readAt(channel, 0, 4).getInt(0) != MAGIC)
+        throw new IOException("Not a binary ledger");
+      channel.position(binary ? 4 : 0);
+
+      Input in = new Input(channel);
+      if(binary) readBinary(in, transactions);
+      else readCsv(in, transactions);
+    }
+  }
+
+  /**
+   * Reads the ledger into a group of people and the debts between them, several debts of one
+   * person to another added up into one.
+   *
+   * @return the people and their debts, in the order in which they first appear.
+   * @throws IOException if the file can not be read or is not a ledger.
+   */
+  public SimplifyDebts.Group read() throws IOException {
+    DebtTable debts = new DebtTable();
+    forEach(debts::add);
+    return new SimplifyDebts.Group(getPeople(), debts.toEdges());
+  }
+
+  /**
+   * Reads the net balance of every person, see {@link NetBalanceSimplifier#netBalances}, keeping
+   * nothing but the balances in memory.
+   *
+   * @return the net balance of each person.
+   * @throws IOException if the file can not be read or is not a ledger.
+   */
+  public long[] netBalances() throws IOException {
+    Balances balances = new Balances();
+    forEach(balances);
+    return Arrays.copyOf(balances.balance, people.size());
+  }
+
+  /**
+   * Simplifies the debts of the ledger with {@link SimplifyDebts#simplifyByComponent}, keeping at
+   * most about the given number of debts in memory at a time. The first pass over the file finds
+   * the groups of people with debts between them; each further pass reads the debts of as many
+   * groups as fit within the limit and simplifies them. A single group with more debts than the
+   * limit is read in a pass of its own, as its debts can only be simplified together.
+   *
+   * @param maxDebts the most transactions to read in one pass, unless a single group has more.
+   * @param usePushRelabel whether to use the push-relabel solver instead of Dinic's.
+   * @param simplified the consumer of the simplified debts, the people numbered as in {@link #getPeople}.
+   * @return the number of passes made over the file.
+   * @throws IOException if the file can not be read or is not a ledger.
+   */
+  public int simplifyInPasses(long maxDebts, boolean usePushRelabel, Consumer<Dinics.Edge> simplified) throws IOException {
+    if(maxDebts <= 0) throw new IllegalArgumentException("maxDebts <= 0");
+    Groups groups = new Groups();
+    forEach(groups);
+    int n = people.size();
+    int[] component = groups.component;
+
+    //  Fill batches with whole groups, in the order of their first person, up to maxDebts each
+    long[] transactionsOfGroup = new long[n];
+    for(int i = 0; i < n; i++) transactionsOfGroup[find(component, i)] += groups.transactions[i];
+    int[] batchOfGroup = new int[n];
+    Arrays.fill(batchOfGroup, -1);
+    int batches = 0;
+    long load = 0;
+    for(int i = 0; i < n; i++) {
+      int root = find(component, i);
+      if(batchOfGroup[root] != -1 || transactionsOfGroup[root] == 0) continue;
+      if(batches == 0 || load + transactionsOfGroup[root] > maxDebts) {
+        batches++;
+        load = 0;
+      }
+      batchOfGroup[root] = batches - 1;
+      load += transactionsOfGroup[root];
+    }
+
+    for(int batch = 0; batch < batches; batch++) {
+      Batch debts = new Batch(component, batchOfGroup, batch);
+      forEach(debts);
+      if(people.size() != n) throw new IOException("Ledger changed between passes");
+      String[] batchIds = new String[debts.size];
+      for(int i = 0; i < debts.size; i++) batchIds[i] = people.id(debts.global[i]);
+      for(Dinics.Edge edge : SimplifyDebts.simplifyByComponent(batchIds, debts.debts.toEdges(), usePushRelabel)) {
+        simplified.accept(new Dinics.Edge(debts.global[edge.from], debts.global[edge.to], edge.capacity));
+      }
+    }
+    return 1 + batches;
+  }
+
+  /**
+   * Returns about how many debts can be simplified at a time in half of the heap, leaving the other
+   * half for the people and the simplified debts, to pass to {@link #simplifyInPasses}.
+   *
+   * @return the number of debts to read in one pass.
+   */
+  public static long maxDebtsInMemory() {
+    return Math.max(1, Runtime.getRuntime().maxMemory() / 2 / BYTES_PER_DEBT);
+  }
+
+  /**
+   * Writes a group of people and their debts as a binary ledger, which is read back faster than a
+   * CSV ledger.
+   *
+   * @param path the file to write, which is replaced if it exists.
+   * @param person the ids of the people.
+   * @param debts the debts between the people.
+   * @throws IOException if the file can not be written.
+   */
+  public static void writeBinary(Path path, String[] person, List<Dinics.Edge> debts) throws IOException {
+    byte[][] ids = new byte[person.length][];
+    for(int i = 0; i < person.length; i++) {
+      ids[i] = person[i].getBytes(StandardCharsets.UTF_8);
+      if(ids[i].length > 0xFFFF) throw new IllegalArgumentException("Id longer than 65535 bytes");
+    }
+    try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(4 * IO_BUFFER_SIZE);
+      buffer.putInt(MAGIC);
+      for(Dinics.Edge debt : debts) {
+        byte[] from = ids[debt.from], to = ids[debt.to];
+        if(buffer.remaining() < 12 + from.length + to.length) drain(channel, buffer);
+        buffer.putShort((short) from.length).put(from);
+        buffer.putShort((short) to.length).put(to);
+        buffer.putLong(debt.capacity);
+      }
+      drain(channel, buffer);
+    }
+  }
+
+  //  Whether the file starts with the magic number followed by either nothing or a whole first
+  //  record, whose ids fit in the file and whose amount is not negative
+  private static boolean isBinary(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if(size < 4 || readAt(channel, 0, 4).getInt(0) != MAGIC) return false;
+    if(size == 4) return true;  //  no transactions
+    if(size < 4 + 2 + 2 + 8) return false;
+    long to = 4 + 2 + (readAt(channel, 4, 2).getShort(0) & 0xFFFF);  //  where the to id starts
+    if(to + 2 + 8 > size) return false;
+    long amount = to + 2 + (readAt(channel, to, 2).getShort(0) & 0xFFFF);
+    return amount + 8 <= size && readAt(channel, amount, 8).getLong(0) >= 0;
+  }
+
+  //  Reads the given number of bytes at the given position of the file, which holds them
+  private static ByteBuffer readAt(FileChannel channel, long position, int bytes) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(bytes);
+    while(buffer.hasRemaining()) {
+      if(channel.read(buffer, position + buffer.position()) < 0) throw new EOFException("Ledger too short");
+    }
+    return buffer;
+  }
+
+  //  Parses records of the binary format after the magic number
+  private void readBinary(Input in, TransactionConsumer transactions) throws IOException {
+    while(in.buffer.hasRemaining() || in.fill()) {
+      int from = readId(in), to = readId(in);
+      in.require(8);
+      long amount = in.buffer.getLong();
+      if(amount < 0) throw new IOException("Amount < 0");
+      transactions.accept(from, to, amount);
+    }
+  }
+
+  private int readId(Input in) throws IOException {
+    in.require(2);
+    int length = in.buffer.getShort() & 0xFFFF;
+    in.require(length);
+    int position = in.buffer.position();
+    in.buffer.position(position + length);
+    return people.indexOf(in.buffer.array(), position, length);
+  }
+
+  //  Parses lines of from,to,amount, where ids may be quoted to hold commas, and "" in a quoted id
+  //  stands for a quote. Each line is parsed where it lies in the buffer, and only quoted ids are
+  //  copied, to take out their quotes
+  private void readCsv(Input in, TransactionConsumer transactions) throws IOException {
+    byte[] id = new byte[64];
+    int[] start = new int[3], end = new int[3];
+    boolean mayBeHeader = true;
+    for(long line = 1; ; line++) {
+      int lineEnd, searched = 0;
+      while((lineEnd = indexOfNewline(in.buffer, searched)) == -1) {
+        searched = in.buffer.remaining();
+        if(!in.fill()) break;  //  the last line need not end with a newline
+      }
+      ByteBuffer buffer = in.buffer;
+      byte[] bytes = buffer.array();
+      int position = buffer.position();
+      if(lineEnd == -1) {
+        if(!buffer.hasRemaining()) return;
+        lineEnd = buffer.limit();
+      }
+      buffer.position(Math.min(lineEnd + 1, buffer.limit()));
+
+      while(position < lineEnd && isSpace(bytes[position])) position++;
+      if(position == lineEnd || bytes[position] == '#') continue;  //  a blank line or a comment
+      int fields = 0;
+      boolean quoted = false;
+      start[0] = position;
+      for(; position < lineEnd; position++) {
+        if(bytes[position] == '"') {
+          quoted = !quoted;
+        } else if(bytes[position] == ',' && !quoted) {
+          if(fields == 2) throw new IOException("Line " + line + ": expected from,to,amount");
+          end[fields++] = position;
+          start[fields] = position + 1;
+        }
+      }
+      end[fields] = lineEnd;
+      if(quoted) throw new IOException("Line " + line + ": quote not closed");
+      if(fields != 2) throw new IOException("Line " + line + ": expected from,to,amount");
+
+      long amount = parseAmount(bytes, start[2], end[2]);
+      if(amount != -1) {
+        int from = personOf(bytes, start[0], end[0], id);
+        int to = personOf(bytes, start[1], end[1], id);
+        transactions.accept(from, to, amount);
+      } else if(!mayBeHeader || !isHeader(bytes, start, end)) {
+        throw new IOException("Line " + line + ": amount is not a whole number >= 0");
+      }
+      mayBeHeader = false;
+    }
+  }
+
+  //  A first line is taken for a header, and skipped, only when none of its fields is blank or a
+  //  number, so a first transaction with a bad amount, such as 12.50, is reported like any other
+  private static boolean isHeader(byte[] bytes, int[] start, int[] end) {
+    for(int field = 0; field < 3; field++) {
+      int from = start[field], to = end[field];
+      while(from < to && isSpace(bytes[from])) from++;
+      if(from == to || isNumber(bytes, from, to)) return false;
+    }
+    return true;
+  }
+
+  //  Whether bytes[start, end), trimmed of spaces, is a number with an optional sign and decimals
+  private static boolean isNumber(byte[] bytes, int start, int end) {
+    while(start < end && isSpace(bytes[start])) start++;
+    while(end > start && isSpace(bytes[end - 1])) end--;
+    if(start < end && (bytes[start] == '-' || bytes[start] == '+')) start++;
+    boolean digits = false, point = false;
+    for(int i = start; i < end; i++) {
+      if(bytes[i] >= '0' && bytes[i] <= '9') digits = true;
+      else if(bytes[i] == '.' && !point) point = true;
+      else return false;
+    }
+    return digits;
+  }
+
+  private static int indexOfNewline(ByteBuffer buffer, int from) {
+    byte[] bytes = buffer.array();
+    for(int i = buffer.position() + from, limit = buffer.limit(); i < limit; i++)
+      if(bytes[i] == '\n') return i;
+    return -1;
+  }
+
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  //  Returns the person of the id in bytes[start, end), trimmed of spaces, and of its quotes, which
+  //  needs it to be copied into the given scratch array
+  private int personOf(byte[] bytes, int start, int end, byte[] scratch) {
+    while(start < end && isSpace(bytes[start])) start++;
+    while(end > start && isSpace(bytes[end - 1])) end--;
+    if(end - start < 2 || bytes[start] != '"' || bytes[end - 1] != '"')
+      return people.indexOf(bytes, start, end - start);
+    if(scratch.length < end - start) scratch = new byte[end - start];
+    int length = 0;
+    for(int i = start + 1; i < end - 1; i++) {
+      scratch[length++] = bytes[i];
+      if(bytes[i] == '"') i++;  //  skip the second quote of ""
+    }
+    return people.indexOf(scratch, 0, length);
+  }
+
+  //  Returns the whole number in bytes[start, end), or -1 if it is not one
+  private static long parseAmount(byte[] bytes, int start, int end) {
+    while(start < end && isSpace(bytes[start])) start++;
+    while(end > start && isSpace(bytes[end - 1])) end--;
+    if(start == end) return -1;
+    long amount = 0;
+    for(int i = start; i < end; i++) {
+      int digit = bytes[i] - '0';
+      if(digit < 0 || digit > 9 || amount > (Long.MAX_VALUE - digit) / 10) return -1;
+      amount = 10 * amount + digit;
+    }
+    return amount;
+  }
+
+  private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while(buffer.hasRemaining()) channel.write(buffer);
+    buffer.clear();
+  }
+
+  //  Returns the representative of the component of 'i', halving the path on the way
+  private static int find(int[] component, int i) {
+    while(component[i] != i) {
+      component[i] = component[component[i]];
+      i = component[i];
+    }
+    return i;
+  }
+
+  //  The bytes of a file, read through a heap buffer whose array is parsed directly, and which is
+  //  refilled as the bytes are used up
+  private static final class Input {
+    private final FileChannel channel;
+    ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE).flip();  //  start out empty
+
+    Input(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    //  Reads more bytes after those remaining in the buffer, growing it if it is already full, and
+    //  returns false at the end of the file
+    boolean fill() throws IOException {
+      if(buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+        ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity());
+        larger.put(buffer);
+        buffer = larger;
+      } else {
+        buffer.compact();
+      }
+      int read = channel.read(buffer);
+      buffer.flip();
+      return read > 0;
+    }
+
+    //  Makes sure the buffer holds at least the given number of bytes
+    void require(int bytes) throws IOException {
+      while(buffer.remaining() < bytes) {
+        if(!fill()) throw new EOFException("Ledger ended part way through a transaction");
+      }
+    }
+  }
+
+  //  Adds up the net balance of every person
+  private final class Balances implements TransactionConsumer {
+    long[] balance = new long[16];
+
+    @Override
+    public void accept(int from, int to, long amount) {
+      if(people.size() > balance.length)
+        balance = Arrays.copyOf(balance, Math.max(people.size(), 2 * balance.length));
+      balance[from] -= amount;
+      balance[to] += amount;
+    }
+  }
+
+  //  Joins the two people of every transaction into one group with union-find, counting the
+  //  transactions each person owes
+  private final class Groups implements TransactionConsumer {
+    int[] component = new int[16];
+    long[] transactions = new long[16];
+    private int size;
+
+    @Override
+    public void accept(int from, int to, long amount) {
+      if(people.size() > component.length) {
+        int length = Math.max(people.size(), 2 * component.length);
+        component = Arrays.copyOf(component, length);
+        transactions = Arrays.copyOf(transactions, length);
+      }
+      for(; size < people.size(); size++) component[size] = size;
+      transactions[from]++;
+      component[find(component, from)] = find(component, to);
+    }
+  }
+
+  //  Adds up the debts of the people in one batch of groups, numbering those people from 0 in the
+  //  order in which they first appear, so the simplifier only works on the people of the batch
+  private static final class Batch implements TransactionConsumer {
+    private final int[] component, batchOfGroup, local;
+    private final int batch;
+    final DebtTable debts = new DebtTable();
+    int[] global = new int[16];
+    int size;
+
+    Batch(int[] component, int[] batchOfGroup, int batch) {
+      this.component = component;
+      this.batchOfGroup = batchOfGroup;
+      this.batch = batch;
+      this.local = new int[batchOfGroup.length];
+      Arrays.fill(local, -1);
+    }
+
+    @Override
+    public void accept(int from, int to, long amount) {
+      if(from >= local.length || to >= local.length || batchOfGroup[find(component, from)] != batch) return;
+      debts.add(localIndex(from), localIndex(to), amount);
+    }
+
+    private int localIndex(int person) {
+      if(local[person] == -1) {
+        if(size == global.length) global = Arrays.copyOf(global, 2 * size);
+        local[person] = size;
+        global[size++] = person;
+      }
+      return local[person];
+    }
+  }
+
+  //  Numbers the ids of people from 0 in the order in which they are first seen. The UTF-8 bytes of
+  //  all ids are kept one after another in one array, and an open addressing hash table maps them to
+  //  their numbers, so looking up an id which has been seen before allocates nothing
+  private static final class People {
+    private byte[] bytes = new byte[1024];
+    private int[] start = new int[17];
+    private int[] hashes = new int[16];
+    private int[] table = new int[32];  //  person + 1, 0 for an empty slot
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    int indexOf(byte[] id, int offset, int length) {
+      int hash = 0;
+      for(int i = offset; i < offset + length; i++) hash = 31 * hash + id[i];
+      hash ^= hash >>> 16;
+      int mask = table.length - 1;
+      for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+        int person = table[slot] - 1;
+        if(person == -1) {
+          table[slot] = add(id, offset, length, hash) + 1;
+          if(2 * size > table.length) rehash();
+          return size - 1;
+        }
+        if(hashes[person] == hash && Arrays.equals(bytes, start[person], start[person + 1], id, offset, offset + length))
+          return person;
+      }
+    }
+
+    private int add(byte[] id, int offset, int length, int hash) {
+      if(size == hashes.length) {
+        hashes = Arrays.copyOf(hashes, 2 * size);
+        start = Arrays.copyOf(start, 2 * size + 1);
+      }
+      int end = start[size] + length;
+      if(end > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(end, 2 * bytes.length));
+      System.arraycopy(id, offset, bytes, start[size], length);
+      hashes[size] = hash;
+      start[size + 1] = end;
+      return size++;
+    }
+
+    private void rehash() {
+      table = new int[2 * table.length];
+      int mask = table.length - 1;
+      for(int person = 0; person < size; person++) {
+        int slot = hashes[person] & mask;
+        while(table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = person + 1;
+      }
+    }
+
+    String id(int person) {
+      return new String(bytes, start[person], start[person + 1] - start[person], StandardCharsets.UTF_8);
+    }
+
+    String[] ids() {
+      String[] ids = new String[size];
+      for(int i = 0; i < size; i++) ids[i] = id(i);
+      return ids;
+    }
+  }
+
+  //  Adds up the debts of one person to another, in an open addressing hash table keyed by the pair
+  //  of people, remembering the order in which the pairs first appear
+  private static final class DebtTable {
+    private long[] keys = new long[32];
+    private long[] amounts = new long[32];
+    private int[] order = new int[16];
+    private int size;
+
+    DebtTable() {
+      Arrays.fill(keys, -1);
+    }
+
+    void add(int from, int to, long amount) {
+      if(from == to || amount == 0) return;  //  owing oneself settles nothing
+      long key = ((long) from << 32) | to;
+      int mask = keys.length - 1;
+      int slot = (int) (key ^ (key >>> 29) ^ (key * 0x9E3779B97F4A7C15L >>> 32)) & mask;
+      while(keys[slot] != -1 && keys[slot] != key) slot = (slot + 1) & mask;
+      if(keys[slot] == key) {
+        amounts[slot] = Math.addExact(amounts[slot], amount);
+        return;
+      }
+      keys[slot] = key;
+      amounts[slot] = amount;
+      if(size == order.length) order = Arrays.copyOf(order, 2 * size);
+      order[size++] = slot;
+      if(2 * size > keys.length) rehash();
+    }
+
+    private void rehash() {
+      long[] oldKeys = keys, oldAmounts = amounts;
+      keys = new long[2 * oldKeys.length];
+      amounts = new long[keys.length];
+      Arrays.fill(keys, -1);
+      int mask = keys.length - 1;
+      for(int i = 0; i < size; i++) {
+        long key = oldKeys[order[i]];
+        int slot = (int) (key ^ (key >>> 29) ^ (key * 0x9E3779B97F4A7C15L >>> 32)) & mask;
+        while(keys[slot] != -1) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        amounts[slot] = oldAmounts[order[i]];
+        order[i] = slot;
+      }
+    }
+
+    List<Dinics.Edge> toEdges() {
+      List<Dinics.Edge> edges = new ArrayList<>(size);
+      for(int i = 0; i < size; i++) {
+        long key = keys[order[i]];
+        edges.add(new Dinics.Edge((int) (key >>> 32), (int) key, amounts[order[i]]));
+      }
+      return edges;
+    }
+  }
+}
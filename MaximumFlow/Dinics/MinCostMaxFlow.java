@@ -0,0 +1,357 @@
+import java.util.*;
+
+import static java.lang.Math.min;
+
+/**
+ * Implementation of min-cost max-flow by successive shortest paths. Every round finds the cheapest
+ * paths from the source to the sink in the residual graph with Dijkstra's algorithm, which needs
+ * no negative edge costs: with Johnson's potentials p every edge u -> v is given the reduced cost
+ * cost + p[u] - p[v] instead, which is never negative once p[u] is the distance of u from the
+ * source, and changes the cost of a path from s to t by p[s] - p[t] only, the same for all paths.
+ *
+ * <p>After each Dijkstra the potentials are moved up by the distances, so every edge on a cheapest
+ * path has a reduced cost of zero, and rather than augmenting along a single path, all cheapest
+ * paths are saturated at once with Dinic's blocking flows on the edges of zero reduced cost
+ * (primal-dual). Negative costs are allowed when there is no cycle of negative cost, the first
+ * potentials then coming from Bellman-Ford.
+ *
+ * <p>With cost scaling a max flow is found first, ignoring costs, and then made cheaper by
+ * Goldberg and Tarjan's successive approximation instead: a flow is e-optimal when no edge with
+ * capacity left has a reduced cost below -e, which makes it optimal once e is below 1 / V. Each
+ * phase divides e and restores e-optimality by saturating every edge of negative reduced cost,
+ * and then pushing the excess this leaves along edges of negative reduced cost, FIFO as in
+ * PushRelabel, lowering the price of a node by at least e whenever it has none left. Unlike
+ * successive shortest paths, the number of phases does not grow with the number of distinct path
+ * costs, only with log(VC), C being the largest cost.
+ *
+ * <p>Time Complexity: O(P (E log(V) + EV²)), P being the number of distinct costs of the cheapest
+ * paths, at most the max flow, or O(V²E log(VC)) with cost scaling
+ */
+class MinCostMaxFlow extends NetworkFlowSolverBase {
+
+  // How much e is divided by in every phase of cost scaling.
+  private static final int SCALING_FACTOR = 4;
+
+  private final boolean costScaling;
+
+  // Potentials of successive shortest paths, or prices of cost scaling, which are potentials for
+  // the costs multiplied by n.
+  private long[] potential, dist, excess;
+  private boolean[] active;
+
+  // Binary heap of the nodes of Dijkstra, with heapIndex[i] the position of node i in it or -1.
+  private int[] heap, heapIndex;
+
+  private int[] level, next, queue, path;
+
+  /**
+   * Creates an instance of a flow network solver. Use the {@link #addEdge(int, int, long, long)}
+   * method to add edges to the graph along with their cost per unit of flow.
+   *
+   * @param n - The number of nodes in the graph including source and sink nodes.
+   */
+  public MinCostMaxFlow(int n, String[] vertexLabels) {
+    this(n, vertexLabels, false);
+  }
+
+  /**
+   * Creates an instance of a flow network solver, which optionally uses cost scaling. Use the
+   * {@link #addEdge(int, int, long, long)} method to add edges to the graph along with their cost
+   * per unit of flow.
+   *
+   * <p>Cost scaling works on the costs multiplied by n, and the prices it gives the nodes can go
+   * down to about -3n²C, C being the largest absolute cost. It is therefore only used when 4n²C
+   * fits in a long, leaving room for the reduced costs as well; otherwise, e.g. for n = 100000
+   * and costs of 100000000, the solver falls back to successive shortest paths, which never
+   * scales the costs.
+   *
+   * @param n - The number of nodes in the graph including source and sink nodes.
+   * @param costScaling - Whether to find a max flow first and then lower its cost by cost scaling.
+   */
+  public MinCostMaxFlow(int n, String[] vertexLabels, boolean costScaling) {
+    super(n, vertexLabels);
+    this.costScaling = costScaling;
+    potential = new long[n];
+    dist = new long[n];
+    heap = new int[n];
+    heapIndex = new int[n];
+    level = new int[n];
+    next = new int[n];
+    queue = new int[n];
+    path = new int[n];
+  }
+
+  @Override
+  public void solve() {
+    if (costScaling && largestCost() <= Long.MAX_VALUE / 4 / n / n) {
+      scaleCosts();
+    } else {
+      successiveShortestPaths();
+    }
+    for (int e = 0; e < edgeCount; e += 2) minCost += edgeFlow[e] * edgeCost[e];
+  }
+
+  private void successiveShortestPaths() {
+    initialPotentials();
+    while (dijkstra()) {
+      for (int i = 0; i < n; i++) potential[i] += min(dist[i], dist[t]);
+      while (bfs(true)) {
+        System.arraycopy(adjacencyStart, 0, next, 0, n);
+        maxFlow += blockingFlow(true);
+      }
+    }
+    // The last Dijkstra no longer reached the sink, the nodes it did reach form the min cut.
+    for (int i = 0; i < n; i++) minCut[i] = dist[i] != INF;
+  }
+
+  private void scaleCosts() {
+    while (bfs(false)) {
+      System.arraycopy(adjacencyStart, 0, next, 0, n);
+      maxFlow += blockingFlow(false);
+    }
+    // Every max flow leaves the same nodes reachable from the source, the min cut.
+    for (int i = 0; i < n; i++) minCut[i] = level[i] != -1;
+
+    if (excess == null) {
+      excess = new long[n];
+      active = new boolean[n];
+    }
+    Arrays.fill(potential, 0);
+    // With the costs multiplied by n, a 1-optimal flow is optimal for the costs themselves.
+    for (long epsilon = Math.multiplyExact(largestCost(), (long) n); epsilon > 1; ) {
+      epsilon = Math.max(1, epsilon / SCALING_FACTOR);
+      refine(epsilon);
+    }
+  }
+
+  // Returns the largest absolute cost of an edge, C, which solve checks 4n²C against before
+  // scaling costs, so that no price or reduced cost overflows.
+  private long largestCost() {
+    long largestCost = 0;
+    for (int e = 0; e < edgeCount; e += 2) largestCost = Math.max(largestCost, Math.abs(edgeCost[e]));
+    return largestCost;
+  }
+
+  // Returns the cost of 'edge', multiplied by n, less the drop in price along it.
+  private long scaledReducedCost(int edge) {
+    return edgeCost[edge] * n + potential[edgeFrom(edge)] - potential[edgeTo[edge]];
+  }
+
+  // Turns the epsilon-optimal flow of the last phase into an epsilon-optimal flow of the same
+  // value. Saturating the edges of negative reduced cost makes the flow 0-optimal but leaves
+  // excess at some nodes, which is pushed on along admissible edges, those of negative reduced
+  // cost, until every node is balanced again.
+  private void refine(long epsilon) {
+    Arrays.fill(excess, 0);
+    for (int e = 0; e < edgeCount; e++) {
+      long cap = remainingCapacity(e);
+      if (cap > 0 && scaledReducedCost(e) < 0) {
+        augment(e, cap);
+        excess[edgeFrom(e)] -= cap;
+        excess[edgeTo[e]] += cap;
+      }
+    }
+    int head = 0, size = 0;
+    for (int i = 0; i < n; i++) {
+      next[i] = adjacencyStart[i];
+      active[i] = excess[i] > 0;
+      if (active[i]) queue[size++] = i;
+    }
+
+    while (size > 0) {
+      int node = queue[head];
+      head = (head + 1 == n) ? 0 : head + 1;
+      size--;
+      active[node] = false;
+      while (excess[node] > 0) {
+        if (next[node] == adjacencyStart[node + 1]) {
+          relabel(node, epsilon);
+          continue;
+        }
+        int edge = adjacencyEdges[next[node]], to = edgeTo[edge];
+        long cap = remainingCapacity(edge);
+        if (cap > 0 && scaledReducedCost(edge) < 0) {
+          long flow = min(excess[node], cap);
+          augment(edge, flow);
+          excess[node] -= flow;
+          excess[to] += flow;
+          if (excess[to] > 0 && !active[to]) {
+            active[to] = true;
+            queue[(head + size >= n) ? head + size - n : head + size] = to;
+            size++;
+          }
+        } else {
+          next[node]++;
+        }
+      }
+    }
+  }
+
+  // Lowers the price of 'node' just enough that its cheapest edge with capacity left becomes
+  // admissible, with a reduced cost of -epsilon.
+  private void relabel(int node, long epsilon) {
+    long price = Long.MIN_VALUE;
+    for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+      int edge = adjacencyEdges[i];
+      if (remainingCapacity(edge) > 0) price = Math.max(price, potential[edgeTo[edge]] - edgeCost[edge] * n);
+    }
+    if (price == Long.MIN_VALUE) throw new IllegalStateException("Excess with nowhere to go");
+    potential[node] = price - epsilon;
+    next[node] = adjacencyStart[node];
+  }
+
+  // Returns the cost of 'edge' less the drop in potential along it.
+  private long reducedCost(int edge) {
+    return edgeCost[edge] + potential[edgeFrom(edge)] - potential[edgeTo[edge]];
+  }
+
+  // Starts the potentials at 0, which makes all reduced costs the plain costs, or with negative
+  // costs at the distances from the source found by Bellman-Ford, queueing the nodes whose
+  // distance went down as in SPFA. Nodes the source can not reach keep 0, as no flow reaches them.
+  private void initialPotentials() {
+    Arrays.fill(potential, 0);
+    boolean negative = false;
+    for (int e = 0; e < edgeCount; e++) negative |= remainingCapacity(e) > 0 && edgeCost[e] < 0;
+    if (!negative) return;
+
+    Arrays.fill(dist, INF);
+    int[] passes = new int[n];
+    boolean[] queued = new boolean[n];
+    int head = 0, size = 0;
+    dist[s] = 0;
+    queue[size++] = s;
+    queued[s] = true;
+    while (size > 0) {
+      int node = queue[head];
+      head = (head + 1 == n) ? 0 : head + 1;
+      size--;
+      queued[node] = false;
+      if (++passes[node] > n) throw new IllegalStateException("Negative cost cycle");
+      for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+        int edge = adjacencyEdges[i], to = edgeTo[edge];
+        if (remainingCapacity(edge) > 0 && dist[node] + edgeCost[edge] < dist[to]) {
+          dist[to] = dist[node] + edgeCost[edge];
+          if (!queued[to]) {
+            queued[to] = true;
+            queue[(head + size >= n) ? head + size - n : head + size] = to;
+            size++;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) if (dist[i] != INF) potential[i] = dist[i];
+  }
+
+  // Finds the distance of every node from the source by reduced costs, stopping once the sink is
+  // reached; the nodes not taken off the heap by then are no nearer than the sink.
+  private boolean dijkstra() {
+    Arrays.fill(dist, INF);
+    Arrays.fill(heapIndex, -1);
+    int size = 0;
+    dist[s] = 0;
+    heapIndex[s] = size;
+    heap[size++] = s;
+    while (size > 0) {
+      int node = heap[0];
+      heapIndex[node] = -1;
+      if (--size > 0) siftDown(heap[size], 0, size);
+      if (node == t) return true;
+      for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+        int edge = adjacencyEdges[i], to = edgeTo[edge];
+        if (remainingCapacity(edge) <= 0) continue;
+        long distance = dist[node] + reducedCost(edge);
+        if (distance < dist[to]) {
+          boolean inHeap = heapIndex[to] != -1;
+          if (!inHeap && dist[to] != INF) continue;  //  already taken off the heap
+          dist[to] = distance;
+          siftUp(to, inHeap ? heapIndex[to] : size++);
+        }
+      }
+    }
+    return false;
+  }
+
+  private void siftUp(int node, int i) {
+    for (int parent; i > 0 && dist[heap[parent = (i - 1) >> 1]] > dist[node]; i = parent) {
+      heap[i] = heap[parent];
+      heapIndex[heap[i]] = i;
+    }
+    heap[i] = node;
+    heapIndex[node] = i;
+  }
+
+  private void siftDown(int node, int i, int size) {
+    for (int child; (child = 2 * i + 1) < size; i = child) {
+      if (child + 1 < size && dist[heap[child + 1]] < dist[heap[child]]) child++;
+      if (dist[heap[child]] >= dist[node]) break;
+      heap[i] = heap[child];
+      heapIndex[heap[i]] = i;
+    }
+    heap[i] = node;
+    heapIndex[node] = i;
+  }
+
+  // Whether 'edge' has capacity left and, when only cheapest paths count, lies on a cheapest path,
+  // with a reduced cost of zero.
+  private boolean admissible(int edge, boolean cheapestOnly) {
+    return remainingCapacity(edge) > 0 && (!cheapestOnly || reducedCost(edge) == 0);
+  }
+
+  // Levels the nodes by their number of edges from the source over admissible edges, see Dinics.
+  private boolean bfs(boolean cheapestOnly) {
+    Arrays.fill(level, -1);
+    level[s] = 0;
+    int head = 0, tail = 0;
+    queue[tail++] = s;
+    while (head < tail) {
+      int node = queue[head++];
+      for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+        int edge = adjacencyEdges[i];
+        if (level[edgeTo[edge]] == -1 && admissible(edge, cheapestOnly)) {
+          level[edgeTo[edge]] = level[node] + 1;
+          queue[tail++] = edgeTo[edge];
+        }
+      }
+    }
+    return level[t] != -1;
+  }
+
+  // Finds a blocking flow in the level graph of admissible edges with an iterative DFS, retreating
+  // to the first saturated edge after every augmentation, as Dinics#blockingFlow does.
+  private long blockingFlow(boolean cheapestOnly) {
+    long flow = 0;
+    int depth = 0, at = s;
+    while (true) {
+      if (at == t) {
+        long bottleNeck = INF;
+        for (int i = 0; i < depth; i++) bottleNeck = min(bottleNeck, remainingCapacity(path[i]));
+        int saturated = -1;
+        for (int i = 0; i < depth; i++) {
+          augment(path[i], bottleNeck);
+          if (saturated == -1 && remainingCapacity(path[i]) == 0) saturated = i;
+        }
+        flow += bottleNeck;
+        depth = saturated;
+        at = edgeFrom(path[saturated]);
+        continue;
+      }
+
+      final int end = adjacencyStart[at + 1];
+      while (next[at] < end) {
+        int edge = adjacencyEdges[next[at]];
+        if (level[edgeTo[edge]] == level[at] + 1 && admissible(edge, cheapestOnly)) break;
+        next[at]++;
+      }
+
+      if (next[at] < end) { // advance..
+        int edge = adjacencyEdges[next[at]];
+        path[depth++] = edge;
+        at = edgeTo[edge];
+      } else { // dead end, retreat and never come back here in this phase..
+        if (at == s) return flow;
+        at = edgeFrom(path[--depth]);
+        next[at]++;
+      }
+    }
+  }
+}
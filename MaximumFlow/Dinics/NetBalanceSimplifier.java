@@ -0,0 +1,230 @@
+import java.util.*;
+
+/**
+ * Simplifies debts by settling net balances instead of running a max flow per debt. In one pass
+ * over the transactions it works out how much each person owes or is owed overall; any set of
+ * payments which leaves everybody with the same net balance settles the group. Debtors are then
+ * matched against creditors greedily, largest against largest, using two heaps, so every payment
+ * clears at least one balance and there are at most n - 1 payments.
+ *
+ * <p>For small groups the fewest payments are found exactly instead: a group whose nonzero
+ * balances split into g disjoint subsets which each sum to zero can be settled with k - g
+ * payments, k being the number of nonzero balances, and a dynamic program over the subsets finds
+ * the largest such g.
+ *
+ * <p>Time Complexity: O(E + V log(V)), or O(E + 2^k k) for k nonzero balances up to
+ * {@link #EXACT_LIMIT}
+ */
+public class NetBalanceSimplifier {
+
+  /**
+   * Groups with at most this many nonzero balances are settled with the fewest payments possible.
+   */
+  public static final int EXACT_LIMIT = 16;
+
+  /**
+   * A payment of amount from one person to another.
+   */
+  public static final class Payment {
+    public final int from, to;
+    public final long amount;
+
+    public Payment(int from, int to, long amount) {
+      this.from = from;
+      this.to = to;
+      this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d ----%d----> %d", from, amount, to);
+    }
+  }
+
+  public static void main(String[] args) {
+    //  The example graph of SimplifyDebts, from my Medium blog post
+    String[] person = { "Alice", "Bob", "Charlie", "David", "Ema", "Fred", "Gabe"};
+    int[] from = { 1, 2, 3, 5, 5, 5, 5, 6, 6 };
+    int[] to = { 2, 3, 4, 1, 2, 3, 4, 1, 3 };
+    long[] amount = { 40, 20, 50, 10, 30, 10, 10, 30, 10 };
+
+    System.out.println();
+    System.out.println("Simplifying Debts by net balance...");
+    System.out.println("-----------------------------------");
+    System.out.println();
+    for(Payment payment : simplify(netBalances(person.length, from, to, amount))) {
+      System.out.println(String.format("%s ----%s----> %s", person[payment.from], payment.amount, person[payment.to]));
+    }
+    System.out.println();
+  }
+
+  /**
+   * Returns the net balance of every person after the given transactions, positive for those who
+   * are owed money and negative for those who owe money. The balances always sum to zero.
+   *
+   * @param n the number of people, numbered from 0 to n - 1.
+   * @param from from[i] is the person who owes amount[i] in the i-th transaction.
+   * @param to to[i] is the person who is owed amount[i] in the i-th transaction.
+   * @param amount the amount of each transaction.
+   * @return the net balance of each person.
+   */
+  public static long[] netBalances(int n, int[] from, int[] to, long[] amount) {
+    if(from.length != to.length || from.length != amount.length)
+      throw new IllegalArgumentException("Transactions need a from, a to and an amount each");
+    long[] balance = new long[n];
+    for(int i = 0; i < from.length; i++) {
+      if(amount[i] < 0) throw new IllegalArgumentException("Amount < 0");
+      balance[from[i]] -= amount[i];
+      balance[to[i]] += amount[i];
+    }
+    return balance;
+  }
+
+  /**
+   * Returns payments which settle the given balances, the fewest possible when there are at most
+   * {@link #EXACT_LIMIT} nonzero balances, and at most one less than the number of nonzero
+   * balances otherwise.
+   *
+   * @param balance the net balance of each person, which must sum to zero.
+   * @return the payments settling all balances.
+   */
+  public static List<Payment> simplify(long[] balance) {
+    int[] people = nonzero(balance);
+    if(people.length <= EXACT_LIMIT)
+      return simplifyExactly(balance, people);
+    List<Payment> payments = new ArrayList<>(people.length);
+    settle(balance.clone(), people, payments);
+    return payments;
+  }
+
+  /**
+   * Returns payments which settle the given balances by matching the largest debtor against the
+   * largest creditor until all balances are zero, in time O(n log(n)).
+   *
+   * @param balance the net balance of each person, which must sum to zero.
+   * @return the payments settling all balances, at most one less than the nonzero balances.
+   */
+  public static List<Payment> simplifyGreedily(long[] balance) {
+    int[] people = nonzero(balance);
+    List<Payment> payments = new ArrayList<>(people.length);
+    settle(balance.clone(), people, payments);
+    return payments;
+  }
+
+  //  Returns the people with a nonzero balance, checking that the balances sum to zero
+  private static int[] nonzero(long[] balance) {
+    long sum = 0;
+    int count = 0;
+    for(long b : balance) {
+      sum += b;
+      if(b != 0) count++;
+    }
+    if(sum != 0) throw new IllegalArgumentException("Balances must sum to zero");
+    int[] people = new int[count];
+    count = 0;
+    for(int i = 0; i < balance.length; i++)
+      if(balance[i] != 0) people[count++] = i;
+    return people;
+  }
+
+  //  Settles the balances left of the given people, which sum to zero, largest debtor against
+  //  largest creditor, adding the payments to the given list
+  private static void settle(long[] left, int[] people, List<Payment> payments) {
+    Heap debtors = new Heap(left, people.length), creditors = new Heap(left, people.length);
+    for(int person : people)
+      (left[person] < 0 ? debtors : creditors).push(person);
+
+    while(debtors.size > 0) {
+      int debtor = debtors.pop(), creditor = creditors.pop();
+      long amount = Math.min(-left[debtor], left[creditor]);
+      payments.add(new Payment(debtor, creditor, amount));
+      left[debtor] += amount;
+      left[creditor] -= amount;
+      if(left[debtor] != 0) debtors.push(debtor);
+      if(left[creditor] != 0) creditors.push(creditor);
+    }
+  }
+
+  //  Binary heap of people, the one with the largest balance left, owed or owing, on top. The
+  //  balances are kept next to the people, which saves looking them up at random when sifting
+  private static final class Heap {
+    private final long[] left, amounts;
+    private final int[] people;
+    private int size;
+
+    Heap(long[] left, int capacity) {
+      this.left = left;
+      this.amounts = new long[capacity];
+      this.people = new int[capacity];
+    }
+
+    void push(int person) {
+      long amount = Math.abs(left[person]);
+      int i = size++;
+      for(int parent; i > 0 && before(amount, person, amounts[parent = (i - 1) >> 1], people[parent]); i = parent) {
+        amounts[i] = amounts[parent];
+        people[i] = people[parent];
+      }
+      amounts[i] = amount;
+      people[i] = person;
+    }
+
+    int pop() {
+      int top = people[0], person = people[--size], i = 0;
+      long amount = amounts[size];
+      for(int child; (child = 2 * i + 1) < size; i = child) {
+        if(child + 1 < size && before(amounts[child + 1], people[child + 1], amounts[child], people[child])) child++;
+        if(!before(amounts[child], people[child], amount, person)) break;
+        amounts[i] = amounts[child];
+        people[i] = people[child];
+      }
+      amounts[i] = amount;
+      people[i] = person;
+      return top;
+    }
+
+    //  Larger amounts first, and lower numbered people first among equal amounts
+    private static boolean before(long amount, int person, long otherAmount, int otherPerson) {
+      return (amount != otherAmount) ? amount > otherAmount : person < otherPerson;
+    }
+  }
+
+  //  Splits the given people into as many groups which sum to zero as possible, then settles each
+  //  group on its own
+  private static List<Payment> simplifyExactly(long[] balance, int[] people) {
+    int k = people.length, full = (1 << k) - 1;
+    long[] sum = new long[1 << k];
+    int[] groups = new int[1 << k];
+    int[] removed = new int[1 << k];
+    for(int mask = 1; mask <= full; mask++) {
+      int lowest = Integer.numberOfTrailingZeros(mask);
+      sum[mask] = sum[mask & (mask - 1)] + balance[people[lowest]];
+      //  The most groups a set splits into is found by leaving out each of its people in turn
+      groups[mask] = -1;
+      for(int rest = mask; rest != 0; rest &= rest - 1) {
+        int i = Integer.numberOfTrailingZeros(rest);
+        if(groups[mask ^ (1 << i)] > groups[mask]) {
+          groups[mask] = groups[mask ^ (1 << i)];
+          removed[mask] = i;
+        }
+      }
+      if(sum[mask] == 0) groups[mask]++;
+    }
+
+    //  Walking back from everybody, the people left out between two sets which sum to zero form a group
+    List<Payment> payments = new ArrayList<>(k);
+    long[] left = balance.clone();
+    int[] group = new int[k];
+    int size = 0;
+    for(int mask = full; mask != 0; ) {
+      int i = removed[mask];
+      group[size++] = people[i];
+      mask ^= 1 << i;
+      if(sum[mask] == 0) {
+        settle(left, Arrays.copyOf(group, size), payments);
+        size = 0;
+      }
+    }
+    return payments;
+  }
+}
@@ -0,0 +1,387 @@
+import java.util.*;
+
+abstract class NetworkFlowSolverBase {
+
+  // To avoid overflow, set infinity to a value less than Long.MAX_VALUE;
+  protected static final long INF = Long.MAX_VALUE / 2;
+
+  private static final int INITIAL_EDGE_CAPACITY = 16;
+
+  /**
+   * Copy of an edge of the flow network, as stored by the solver at the time it was made. The
+   * solver itself keeps its edges in primitive arrays, see {@link #edgeTo}, so changing an Edge
+   * does not change the flow network; Edges only describe edges to and from the solver.
+   */
+  public static class Edge {
+    public int from, to;
+    public String fromLabel, toLabel;
+    public Edge residual;
+    public long flow, cost;
+    public final long capacity, originalCost;
+
+    public Edge(int from, int to, long capacity) {
+      this(from, to, capacity, 0 /* unused */);
+    }
+
+    public Edge(int from, int to, long capacity, long cost) {
+      this.from = from;
+      this.to = to;
+      this.capacity = capacity;
+      this.originalCost = this.cost = cost;
+    }
+
+    public boolean isResidual() {
+      return capacity == 0;
+    }
+
+    public long remainingCapacity() {
+      return capacity - flow;
+    }
+
+    public void augment(long bottleNeck) {
+      flow += bottleNeck;
+      residual.flow -= bottleNeck;
+    }
+
+    public String toString(int s, int t) {
+      String u = (from == s) ? "s" : ((from == t) ? "t" : String.valueOf(from));
+      String v = (to == s) ? "s" : ((to == t) ? "t" : String.valueOf(to));
+      return String.format(
+          "Edge %s -> %s | flow = %d | capacity = %d | is residual: %s",
+          u, v, flow, capacity, isResidual());
+    }
+  }
+
+  // Inputs: n = number of nodes, s = source, t = sink
+  protected int n, s, t;
+
+  protected long maxFlow;
+  protected long minCost;
+
+  protected boolean[] minCut;
+  protected String[] vertexLabels;
+
+  // The edges are stored as parallel primitive arrays indexed by edge id. Every edge added gets an
+  // even id e and its residual edge the odd id e ^ 1, so the residual of any edge e is e ^ 1 and
+  // its starting node is edgeTo[e ^ 1]. Only the first edgeCount entries of each array are in use.
+  protected int edgeCount;
+  protected int[] edgeTo;
+  protected long[] edgeCapacity, edgeFlow, edgeCost;
+
+  // Compressed sparse row (CSR) adjacency: the ids of the edges leaving node i are
+  // adjacencyEdges[adjacencyStart[i]] to adjacencyEdges[adjacencyStart[i + 1] - 1], in the order
+  // in which they were added. Rebuilt before solving whenever edges were added since.
+  protected int[] adjacencyStart, adjacencyEdges;
+  private int[] adjacencyFill;
+  private boolean adjacencyStale = true;
+
+  // 'visited' and 'visitedToken' are variables used for graph sub-routines to
+  // track whether a node has been visited or not. In particular, node 'i' was
+  // recently visited if visited[i] == visitedToken is true. This is handy
+  // because to mark all nodes as unvisited simply increment the visitedToken.
+  private int visitedToken = 1;
+  private int[] visited;
+
+  // Indicates whether the network flow algorithm has ran. We should not need to
+  // run the solver multiple times, because it always yields the same result.
+  protected boolean solved;
+
+  /**
+   * Creates an instance of a flow network solver. Use the {@link #addEdge} method to add edges to
+   * the graph.
+   *
+   * @param n - The number of nodes in the graph including source and sink nodes.
+   */
+  public NetworkFlowSolverBase(int n, String[] vertexLabels) {
+    this.n = n;
+    initializeGraph();
+    assignLabelsToVertices(vertexLabels);
+    minCut = new boolean[n];
+    visited = new int[n];
+  }
+
+  // Construct an empty graph with n nodes including the source and sink nodes.
+  private void initializeGraph() {
+    edgeTo = new int[INITIAL_EDGE_CAPACITY];
+    edgeCapacity = new long[INITIAL_EDGE_CAPACITY];
+    edgeFlow = new long[INITIAL_EDGE_CAPACITY];
+    edgeCost = new long[INITIAL_EDGE_CAPACITY];
+    adjacencyStart = new int[n + 1];
+    adjacencyFill = new int[n];
+  }
+
+  // Add labels to vertices in the graph.
+  private void assignLabelsToVertices(String[] vertexLabels) {
+    if(vertexLabels.length != n)
+      throw new IllegalArgumentException(String.format("You must pass %s number of labels", n));
+    this.vertexLabels = vertexLabels;
+  }
+
+  /**
+   * Adds a list of directed edges (and residual edges) to the flow graph.
+   *
+   * @param edges - A list of all edges to be added to the flow graph.
+   */
+  public void addEdges(List<Edge> edges) {
+    if (edges == null) throw new IllegalArgumentException("Edges cannot be null");
+    for(Edge edge : edges) {
+      addEdge(edge.from, edge.to, edge.capacity);
+    }
+  }
+
+  /**
+   * Adds a directed edge (and residual edge) to the flow graph.
+   *
+   * @param from - The index of the node the directed edge starts at.
+   * @param to - The index of the node the directed edge ends at.
+   * @param capacity - The capacity of the edge.
+   */
+  public void addEdge(int from, int to, long capacity) {
+    if (capacity < 0) throw new IllegalArgumentException("Capacity < 0");
+    addEdge(from, to, capacity, 0 /* unused */);
+  }
+
+  /** Cost variant of {@link #addEdge(int, int, int)} for min-cost max-flow */
+  public void addEdge(int from, int to, long capacity, long cost) {
+    if (edgeCount + 2 > edgeTo.length) {
+      int newLength = 2 * edgeTo.length;
+      edgeTo = Arrays.copyOf(edgeTo, newLength);
+      edgeCapacity = Arrays.copyOf(edgeCapacity, newLength);
+      edgeFlow = Arrays.copyOf(edgeFlow, newLength);
+      edgeCost = Arrays.copyOf(edgeCost, newLength);
+    }
+    int e = edgeCount;
+    edgeTo[e] = to;
+    edgeCapacity[e] = capacity;
+    edgeFlow[e] = 0;
+    edgeCost[e] = cost;
+    edgeTo[e ^ 1] = from;
+    edgeCapacity[e ^ 1] = 0;
+    edgeFlow[e ^ 1] = 0;
+    edgeCost[e ^ 1] = -cost;
+    edgeCount += 2;
+    adjacencyStale = true;
+  }
+
+  /**
+   * Removes all edges, keeping the memory they took up for the edges added next.
+   */
+  public void clearEdges() {
+    resetFlows();
+    edgeCount = 0;
+    adjacencyStale = true;
+  }
+
+  /**
+   * Removes all flow from the network, so that it can be solved again, possibly after changing
+   * capacities or the source and sink, without building it up again.
+   */
+  public void resetFlows() {
+    Arrays.fill(edgeFlow, 0, edgeCount, 0);
+    Arrays.fill(minCut, false);
+    maxFlow = 0;
+    minCost = 0;
+    solved = false;
+  }
+
+  /**
+   * Returns the number of edges added, not counting residual edges. The edges are numbered from 0
+   * in the order in which they were added.
+   */
+  public int getEdgeCount() {
+    return edgeCount / 2;
+  }
+
+  /** Returns the node the i-th edge added starts at. */
+  public int getEdgeFrom(int i) {
+    return edgeFrom(2 * i);
+  }
+
+  /** Returns the node the i-th edge added ends at. */
+  public int getEdgeTo(int i) {
+    return edgeTo[2 * i];
+  }
+
+  /** Returns the capacity of the i-th edge added. */
+  public long getEdgeCapacity(int i) {
+    return edgeCapacity[2 * i];
+  }
+
+  /** Returns the flow along the i-th edge added. */
+  public long getEdgeFlow(int i) {
+    return edgeFlow[2 * i];
+  }
+
+  /**
+   * Changes the capacity of the i-th edge added, see {@link #resetFlows} to solve again.
+   */
+  public void setEdgeCapacity(int i, long capacity) {
+    if (capacity < 0) throw new IllegalArgumentException("Capacity < 0");
+    edgeCapacity[2 * i] = capacity;
+    solved = false;
+  }
+
+  // Returns the node edge 'e' starts at.
+  protected final int edgeFrom(int e) {
+    return edgeTo[e ^ 1];
+  }
+
+  // Returns the capacity left on edge 'e'.
+  protected final long remainingCapacity(int e) {
+    return edgeCapacity[e] - edgeFlow[e];
+  }
+
+  // Pushes 'bottleNeck' units of flow along edge 'e', and back along its residual edge.
+  protected final void augment(int e, long bottleNeck) {
+    edgeFlow[e] += bottleNeck;
+    edgeFlow[e ^ 1] -= bottleNeck;
+  }
+
+  // Counting sort of the edge ids by starting node, which keeps the edges of each node in the
+  // order in which they were added, O(n + edgeCount)
+  private void buildAdjacency() {
+    adjacencyStale = false;
+    if (adjacencyEdges == null || adjacencyEdges.length < edgeCount) adjacencyEdges = new int[edgeTo.length];
+    Arrays.fill(adjacencyStart, 0);
+    for (int e = 0; e < edgeCount; e++) adjacencyStart[edgeFrom(e) + 1]++;
+    for (int i = 0; i < n; i++) adjacencyStart[i + 1] += adjacencyStart[i];
+    System.arraycopy(adjacencyStart, 0, adjacencyFill, 0, n);
+    for (int e = 0; e < edgeCount; e++) adjacencyEdges[adjacencyFill[edgeFrom(e)]++] = e;
+  }
+
+  // Marks node 'i' as visited.
+  public void visit(int i) {
+    visited[i] = visitedToken;
+  }
+
+  // Returns whether or not node 'i' has been visited.
+  public boolean visited(int i) {
+    return visited[i] == visitedToken;
+  }
+
+  // Resets all nodes as unvisited. This is especially useful to do
+  // between iterations of finding augmenting paths, O(1)
+  public void markAllNodesAsUnvisited() {
+    visitedToken++;
+  }
+
+  /**
+   * Returns the graph after the solver has been executed. This allow you to inspect the {@link
+   * Edge#flow} compared to the {@link Edge#capacity} in each edge. This is useful if you want to
+   * figure out which edges were used during the max flow. The edges returned are copies, see
+   * {@link Edge}.
+   */
+  public List<Edge>[] getGraph() {
+    execute();
+    if (adjacencyStale) buildAdjacency();
+    Edge[] copies = new Edge[edgeCount];
+    for (int e = 0; e < edgeCount; e++) copies[e] = copyOf(e);
+    List<Edge>[] graph = new List[n];
+    for (int i = 0; i < n; i++) {
+      graph[i] = new ArrayList<>(adjacencyStart[i + 1] - adjacencyStart[i]);
+      for (int j = adjacencyStart[i]; j < adjacencyStart[i + 1]; j++) {
+        int e = adjacencyEdges[j];
+        copies[e].residual = copies[e ^ 1];
+        graph[i].add(copies[e]);
+      }
+    }
+    return graph;
+  }
+
+  /**
+   * Returns copies of all edges in this flow network, in the order in which they were added
+   */
+  public List<Edge> getEdges() {
+    List<Edge> edges = new ArrayList<>(edgeCount / 2);
+    for (int e = 0; e < edgeCount; e += 2) {
+      Edge edge = copyOf(e);
+      edge.residual = copyOf(e ^ 1);
+      edge.residual.residual = edge;
+      edges.add(edge);
+    }
+    return edges;
+  }
+
+  // Returns a copy of edge 'e' without its residual edge.
+  private Edge copyOf(int e) {
+    Edge edge = new Edge(edgeFrom(e), edgeTo[e], edgeCapacity[e], edgeCost[e]);
+    edge.flow = edgeFlow[e];
+    return edge;
+  }
+
+  // Returns the maximum flow from the source to the sink.
+  public long getMaxFlow() {
+    execute();
+    return maxFlow;
+  }
+
+  // Returns the min cost from the source to the sink.
+  // NOTE: This method only applies to min-cost max-flow algorithms.
+  public long getMinCost() {
+    execute();
+    return minCost;
+  }
+
+  // Returns the min-cut of this flow network in which the nodes on the "left side"
+  // of the cut with the source are marked as true and those on the "right side"
+  // of the cut with the sink are marked as false.
+  public boolean[] getMinCut() {
+    execute();
+    return minCut;
+  }
+
+  /**
+   * Used to set the source for this flow network 
+   */
+  public void setSource(int s) {
+    this.s = s;
+  }
+
+  /**
+   * Used to set the sink for this flow network 
+   */
+  public void setSink(int t) {
+    this.t = t;
+  }
+
+  /**
+   * Get source for this flow network 
+   */
+  public int getSource() {
+    return s;
+  }
+
+  /**
+   * Get sink for this flow network 
+   */
+  public int getSink() {
+    return t;
+  }
+
+  /**
+   * Set 'solved' flag to false to force recomputation of subsequent flows.
+   */
+  public void recompute() {
+    solved = false;
+  }
+
+  /**
+   * Print all edges.
+   */
+  public void printEdges() {
+    for (int e = 0; e < edgeCount; e += 2) {
+      System.out.println(String.format("%s ----%s----> %s", vertexLabels[edgeFrom(e)], edgeCapacity[e], vertexLabels[edgeTo[e]]));
+    }
+  }
+
+  // Wrapper method that ensures we only call solve() once
+  private void execute() {
+    if (solved) return;
+    solved = true;
+    if (adjacencyStale) buildAdjacency();
+    solve();
+  }
+
+  // Method to implement which solves the network flow problem.
+  public abstract void solve();
+}
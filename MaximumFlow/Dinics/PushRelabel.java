@@ -0,0 +1,184 @@
+import java.util.*;
+
+import static java.lang.Math.min;
+
+/**
+ * Implementation of the push-relabel (preflow-push) network flow algorithm. Rather than looking for
+ * augmenting paths, it floods the network from the source and lets every node push its excess flow
+ * downhill towards the sink, lifting (relabelling) a node when none of its neighbours is below it.
+ * Excess which can not reach the sink ends up flowing back to the source, leaving a valid flow.
+ *
+ * <p>Active nodes are processed in FIFO order, together with the global relabelling heuristic,
+ * which periodically recomputes every height as the exact distance to the sink (or source) with a
+ * reverse BFS, and the gap heuristic, which lifts every node above an empty height straight above
+ * the source as none of them can reach the sink any more.
+ *
+ * <p>Time Complexity: O(V³)
+ */
+class PushRelabel extends NetworkFlowSolverBase {
+
+  private long[] excess;
+  private int[] height, heightCount, current, queue, order;
+  private boolean[] active;
+  private int queueHead, queueSize, relabelsSinceGlobalRelabel;
+
+  /**
+   * Creates an instance of a flow network solver. Use the {@link #addEdge} method to add edges to
+   * the graph.
+   *
+   * @param n - The number of nodes in the graph including source and sink nodes.
+   */
+  public PushRelabel(int n, String[] vertexLabels) {
+    super(n, vertexLabels);
+    excess = new long[n];
+    height = new int[n];
+    heightCount = new int[2 * n + 1];
+    current = new int[n];
+    queue = new int[n];
+    order = new int[n];
+    active = new boolean[n];
+  }
+
+  @Override
+  public void solve() {
+    Arrays.fill(excess, 0);
+    Arrays.fill(active, false);
+    queueHead = queueSize = 0;
+    globalRelabel();
+    for (int i = adjacencyStart[s]; i < adjacencyStart[s + 1]; i++) {
+      int edge = adjacencyEdges[i];
+      long cap = remainingCapacity(edge);
+      if (cap > 0) push(edge, cap);
+    }
+
+    while (queueSize > 0) {
+      int node = queue[queueHead];
+      queueHead = (queueHead + 1 == n) ? 0 : queueHead + 1;
+      queueSize--;
+      active[node] = false;
+      discharge(node);
+      if (relabelsSinceGlobalRelabel >= n) globalRelabel();
+    }
+    maxFlow = excess[t];
+
+    // The nodes still reachable from the source in the residual graph form the min cut.
+    markAllNodesAsUnvisited();
+    visit(s);
+    minCut[s] = true;
+    int size = 0;
+    queue[size++] = s;
+    for (int head = 0; head < size; head++) {
+      int node = queue[head];
+      for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+        int edge = adjacencyEdges[i];
+        if (remainingCapacity(edge) > 0 && !visited(edgeTo[edge])) {
+          visit(edgeTo[edge]);
+          minCut[edgeTo[edge]] = true;
+          queue[size++] = edgeTo[edge];
+        }
+      }
+    }
+  }
+
+  // Pushes the excess of 'node' along admissible edges, relabelling it whenever it runs out of
+  // them, until the node has no excess left.
+  private void discharge(int node) {
+    while (excess[node] > 0) {
+      if (current[node] == adjacencyStart[node + 1]) {
+        relabel(node);
+        if (relabelsSinceGlobalRelabel >= n) {
+          // Let the global relabel put every height right before carrying on.
+          enqueue(node);
+          return;
+        }
+        continue;
+      }
+      int edge = adjacencyEdges[current[node]];
+      long cap = remainingCapacity(edge);
+      if (cap > 0 && height[node] == height[edgeTo[edge]] + 1) {
+        push(edge, min(excess[node], cap));
+      } else {
+        current[node]++;
+      }
+    }
+  }
+
+  // Pushes 'flow' units along 'edge', activating the node at its end.
+  private void push(int edge, long flow) {
+    int to = edgeTo[edge];
+    augment(edge, flow);
+    excess[edgeFrom(edge)] -= flow;
+    excess[to] += flow;
+    if (to != s && to != t) enqueue(to);
+  }
+
+  private void enqueue(int node) {
+    if (active[node]) return;
+    active[node] = true;
+    int tail = queueHead + queueSize;
+    queue[(tail >= n) ? tail - n : tail] = node;
+    queueSize++;
+  }
+
+  // Lifts 'node' just above its lowest neighbour in the residual graph, or, when it is the last
+  // node of its height below the source, every node from that height up to just above the source.
+  private void relabel(int node) {
+    relabelsSinceGlobalRelabel++;
+    int oldHeight = height[node];
+    if (heightCount[oldHeight] == 1 && oldHeight < n) { // gap heuristic..
+      for (int i = 0; i < n; i++) {
+        if (height[i] >= oldHeight && height[i] < n) setHeight(i, n + 1);
+      }
+      return;
+    }
+    int newHeight = 2 * n;
+    for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+      int edge = adjacencyEdges[i];
+      if (remainingCapacity(edge) > 0) newHeight = Math.min(newHeight, height[edgeTo[edge]] + 1);
+    }
+    setHeight(node, newHeight);
+  }
+
+  private void setHeight(int node, int newHeight) {
+    heightCount[height[node]]--;
+    height[node] = newHeight;
+    heightCount[newHeight]++;
+    current[node] = adjacencyStart[node];
+  }
+
+  // Sets every height to the distance to the sink in the residual graph, or, for the nodes which
+  // can no longer reach the sink, to the number of nodes plus their distance to the source.
+  private void globalRelabel() {
+    relabelsSinceGlobalRelabel = 0;
+    Arrays.fill(height, 2 * n);
+    height[s] = n;
+    height[t] = 0;
+    markAllNodesAsUnvisited();
+    int size = 0;
+    order[size++] = t;
+    visit(t);
+    visit(s);
+    for (int pass = 0; pass < 2; pass++) {
+      for (int head = 0; head < size; head++) {
+        int node = order[head];
+        for (int i = adjacencyStart[node]; i < adjacencyStart[node + 1]; i++) {
+          int edge = adjacencyEdges[i], from = edgeTo[edge];
+          // 'from' can push to 'node' when the reverse of 'edge' has capacity left.
+          if (!visited(from) && remainingCapacity(edge ^ 1) > 0) {
+            visit(from);
+            height[from] = height[node] + 1;
+            order[size++] = from;
+          }
+        }
+      }
+      size = 0;
+      order[size++] = s;
+    }
+
+    Arrays.fill(heightCount, 0);
+    for (int i = 0; i < n; i++) {
+      heightCount[height[i]]++;
+      current[i] = adjacencyStart[i];
+    }
+  }
+}
@@ -1,454 +1,327 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import static java.lang.Math.min;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of algorithm to simplify debts using Dinic's network flow algorithm. The algorithm picks edges one at a time and
  * runs the network flow algorithm to generates the residual graph, which is then again fed back to the network flow algorithm
  * until there are no more non visited edges.
  *
+ * <p>Nothing is shared between two simplifications, so many groups can be simplified at the same time with
+ * {@link #simplifyAll}, and a group whose people fall apart into sub-groups without debts between them can be
+ * simplified one sub-group (weakly connected component) at a time with {@link #simplifyByComponent}.
+ *
  * <p>Time Complexity: O(E²V²)
  *
  * @author Mithun Mohan K, mithunmk93@gmail.com
  */
 public class SimplifyDebts {
-  private static final long OFFSET = 1000000000L;
-  private static Set<Long> visitedEdges;
 
-  public static void main(String[] args) {
-    createGraphForDebts();
+  /**
+   * A group of people along with the debts between them, each debt being an edge from the person who owes the
+   * amount to the person who is owed it, with the amount as its capacity.
+   */
+  public static final class Group {
+    public final String[] person;
+    public final List<Dinics.Edge> debts;
+
+    public Group(String[] person, List<Dinics.Edge> debts) {
+      this.person = person;
+      this.debts = debts;
+    }
+  }
+
+  //  Pass --push-relabel to use the push-relabel solver instead of Dinic's, and the path of a CSV or binary
+  //  ledger, see LedgerReader, to simplify its debts instead of those of the example
+  public static void main(String[] args) throws IOException {
+    boolean usePushRelabel = args.length > 0 && args[0].equals("--push-relabel");
+    int ledger = usePushRelabel ? 1 : 0;
+    if(args.length > ledger) simplifyLedger(Paths.get(args[ledger]), usePushRelabel);
+    else createGraphForDebts(usePushRelabel);
+  }
+
+  private static NetworkFlowSolverBase createSolver(int n, String[] person, boolean usePushRelabel) {
+    return usePushRelabel ? new PushRelabel(n, person) : new Dinics(n, person);
   }
 
   /**
    * This example graph is taken from my Medium blog post.
    * Here Alice, Bob, Charlie, David, Ema, Fred and Gabe are represented by vertices from 0 to 6 respectively.
    */
-  private static void createGraphForDebts() {
+  private static void createGraphForDebts(boolean usePushRelabel) {
     //  List of all people in the group
     String[] person = { "Alice", "Bob", "Charlie", "David", "Ema", "Fred", "Gabe"};
-    int n = person.length;
-    //  Creating a graph with n vertices
-    Dinics solver = new Dinics(n, person);
     //  Adding edges to the graph
-    solver = addAllTransactions(solver);
+    List<Dinics.Edge> debts = addAllTransactions(new ArrayList<>());
 
     System.out.println();
     System.out.println("Simplifying Debts...");
     System.out.println("--------------------");
     System.out.println();
 
-    //  Map to keep track of visited edges
-    visitedEdges = new HashSet<>();
-    Integer edgePos;
-
-    while((edgePos = getNonVisitedEdge(solver.getEdges())) != null) {
-      //  Force recomputation of subsequent flows in the graph
-      solver.recompute();
-      //  Set source and sink in the flow graph
-      Dinics.Edge firstEdge = solver.getEdges().get(edgePos);
-      solver.setSource(firstEdge.from);
-      solver.setSink(firstEdge.to);
-      //  Initialize the residual graph to be same as the given graph
-      List<Dinics.Edge>[] residualGraph = solver.getGraph();
-      List<Dinics.Edge> newEdges = new ArrayList<>();
-
-      for(List<Dinics.Edge> allEdges : residualGraph) {
-        for(Dinics.Edge edge : allEdges) {
-          long remainingFlow = ((edge.flow < 0) ? edge.capacity : (edge.capacity - edge.flow));
-          //  If there is capacity remaining in the graph, then add the remaining capacity as an edge
-          //  so that it can be used for optimizing other debts within the graph
-          if(remainingFlow > 0) {
-            newEdges.add(new Dinics.Edge(edge.from, edge.to, remainingFlow));
-          }
-        }
-      }
-
-      //  Get the maximum flow between the source and sink
-      long maxFlow = solver.getMaxFlow();
-      //  Mark the edge from source to sink as visited
-      int source = solver.getSource();
-      int sink = solver.getSink();
-      visitedEdges.add(getHashKeyForEdge(source, sink));
-      //  Create a new graph
-      solver = new Dinics(n, person);
-      //  Add edges having remaining capacity
-      solver.addEdges(newEdges);
-      //  Add an edge from source to sink in the new graph with obtained maximum flow as it's weight
-      solver.addEdge(source, sink, maxFlow);
+    //  Print the edges in the simplified graph
+    for(Dinics.Edge edge : simplify(person, debts, usePushRelabel)) {
+      System.out.println(String.format("%s ----%s----> %s", person[edge.from], edge.capacity, person[edge.to]));
     }
-    //  Print the edges in the graph
-    solver.printEdges();
     System.out.println();
   }
 
-  private static Dinics addAllTransactions(Dinics solver) {
-    //  Transactions made by Bob
-    solver.addEdge(1, 2, 40);
-    //  Transactions made by Charlie
-    solver.addEdge(2, 3, 20);
-    //  Transactions made by David
-    solver.addEdge(3, 4, 50);
-    //  Transactions made by Fred
-    solver.addEdge(5, 1, 10);
-    solver.addEdge(5, 2, 30);
-    solver.addEdge(5, 3, 10);
-    solver.addEdge(5, 4, 10);
-    //  Transactions made by Gabe
-    solver.addEdge(6, 1, 30);
-    solver.addEdge(6, 3, 10);
-    return solver;
-  }
-
-  /**
-  * Get any non visited edge in the graph
-  * @param edges list of all edges in the graph
-  * @return index of a non visited edge
-  */
-  private static Integer getNonVisitedEdge(List<Dinics.Edge> edges) {
-    Integer edgePos = null;
-    int curEdge = 0;
-    for(Dinics.Edge edge : edges) {
-      if(!visitedEdges.contains(getHashKeyForEdge(edge.from, edge.to))) {
-        edgePos = curEdge;
-      }
-      curEdge++;
-    }
-    return edgePos;
+  //  Streams the ledger through the simplifier, a batch of groups of people at a time
+  private static void simplifyLedger(Path path, boolean usePushRelabel) throws IOException {
+    LedgerReader reader = new LedgerReader(path);
+    reader.simplifyInPasses(LedgerReader.maxDebtsInMemory(), usePushRelabel, edge ->
+      System.out.println(String.format("%s ----%s----> %s", reader.getPerson(edge.from), edge.capacity, reader.getPerson(edge.to))));
   }
 
   /**
-  * Get a unique hash key for a given edge
-  * @param u the starting vertex in the edge
-  * @param v the ending vertex in the edge
-  * @return a unique hash key
-  */
-  private static Long getHashKeyForEdge(int u, int v) {
-    return u * OFFSET + v;
-  }
-}
-
-
-/**
- * Implementation of Dinic's network flow algorithm. The algorithm works by first constructing a
- * level graph using a BFS and then finding augmenting paths on the level graph using multiple DFSs.
- *
- * <p>Time Complexity: O(EV²)
- *
- * @link https://github.com/williamfiset/Algorithms
- */
-class Dinics extends NetworkFlowSolverBase {
-
-  private int[] level;
-
-  /**
-   * Creates an instance of a flow network solver. Use the {@link #addEdge} method to add edges to
-   * the graph.
+   * Simplifies the debts of a group of people.
    *
-   * @param n - The number of nodes in the graph including source and sink nodes.
+   * @param person the names of the people in the group, who are numbered from 0.
+   * @param debts the debts between the people in the group.
+   * @param usePushRelabel whether to use the push-relabel solver instead of Dinic's.
+   * @return the simplified debts, settling the same amounts.
    */
-  public Dinics(int n, String[] vertexLabels) {
-    super(n, vertexLabels);
-    level = new int[n];
-  }
-
-  @Override
-  public void solve() {
-    // next[i] indicates the next unused edge index in the adjacency list for node i. This is part
-    // of the Shimon Even and Alon Itai optimization of pruning deads ends as part of the DFS phase.
-    int[] next = new int[n];
+  public static List<Dinics.Edge> simplify(String[] person, List<Dinics.Edge> debts, boolean usePushRelabel) {
+    int n = person.length;
+    //  Creating a graph with n vertices, which is emptied and filled again for every max flow
+    NetworkFlowSolverBase solver = createSolver(n, person, usePushRelabel);
+    solver.addEdges(debts);
+
+    //  Every graph only has edges between people who had an edge in the graph before it, so whether the
+    //  (from, to) pair of an edge has been visited is carried over from one graph to the next
+    boolean[] visited = new boolean[debts.size() + 1];
+    //  The edges of the next graph, made in place of new lists of edges
+    int[] from = new int[debts.size() + 1], to = new int[debts.size() + 1], count = new int[n + 1];
+    long[] capacity = new long[debts.size() + 1];
+    boolean[] nextVisited = new boolean[debts.size() + 1];
+    int edgePos;
+
+    while((edgePos = getNonVisitedEdge(visited, solver.getEdgeCount())) != -1) {
+      //  Set source and sink in the flow graph
+      int source = solver.getEdgeFrom(edgePos);
+      int sink = solver.getEdgeTo(edgePos);
+      solver.setSource(source);
+      solver.setSink(sink);
+      //  Get the maximum flow between the source and sink
+      long maxFlow = solver.getMaxFlow();
 
-    while (bfs()) {
-      Arrays.fill(next, 0);
-      // Find max flow by adding all augmenting path flows.
-      for (long f = dfs(s, next, INF); f != 0; f = dfs(s, next, INF)) {
-        maxFlow += f;
+      int m = solver.getEdgeCount();
+      if(m + 1 > from.length) {
+        from = Arrays.copyOf(from, 2 * (m + 1));
+        to = Arrays.copyOf(to, 2 * (m + 1));
+        capacity = Arrays.copyOf(capacity, 2 * (m + 1));
+        nextVisited = new boolean[2 * (m + 1)];
       }
-    }
-
-    for (int i = 0; i < n; i++) if (level[i] != -1) minCut[i] = true;
-  }
-
-  // Do a BFS from source to sink and compute the depth/level of each node
-  // which is the minimum number of edges from that node to the source.
-  private boolean bfs() {
-    Arrays.fill(level, -1);
-    level[s] = 0;
-    Deque<Integer> q = new ArrayDeque<>(n);
-    q.offer(s);
-    while (!q.isEmpty()) {
-      int node = q.poll();
-      for (Edge edge : graph[node]) {
-        long cap = edge.remainingCapacity();
-        if (cap > 0 && level[edge.to] == -1) {
-          level[edge.to] = level[node] + 1;
-          q.offer(edge.to);
-        }
+      //  If there is capacity remaining on an edge, then keep the remaining capacity as an edge so that it can be
+      //  used for optimizing other debts within the graph. The edges are kept in the order of the residual graph,
+      //  grouped by the person they start at
+      Arrays.fill(count, 0);
+      for(int i = 0; i < m; i++) {
+        if(solver.getEdgeCapacity(i) > solver.getEdgeFlow(i)) count[solver.getEdgeFrom(i) + 1]++;
       }
-    }
-    return level[t] != -1;
-  }
-
-  private long dfs(int at, int[] next, long flow) {
-    if (at == t) return flow;
-    final int numEdges = graph[at].size();
-
-    for (; next[at] < numEdges; next[at]++) {
-      Edge edge = graph[at].get(next[at]);
-      long cap = edge.remainingCapacity();
-      if (cap > 0 && level[edge.to] == level[at] + 1) {
-
-        long bottleNeck = dfs(edge.to, next, min(flow, cap));
-        if (bottleNeck > 0) {
-          edge.augment(bottleNeck);
-          return bottleNeck;
+      for(int i = 0; i < n; i++) count[i + 1] += count[i];
+      for(int i = 0; i < m; i++) {
+        long remainingFlow = solver.getEdgeCapacity(i) - solver.getEdgeFlow(i);
+        if(remainingFlow > 0) {
+          int u = solver.getEdgeFrom(i), v = solver.getEdgeTo(i), pos = count[u]++;
+          from[pos] = u;
+          to[pos] = v;
+          capacity[pos] = remainingFlow;
+          //  Mark the edges from source to sink as visited
+          nextVisited[pos] = visited[i] || (u == source && v == sink);
         }
       }
-    }
-    return 0;
-  }
-}
-
-
-abstract class NetworkFlowSolverBase {
-
-  // To avoid overflow, set infinity to a value less than Long.MAX_VALUE;
-  protected static final long INF = Long.MAX_VALUE / 2;
-
-  public static class Edge {
-    public int from, to;
-    public String fromLabel, toLabel;
-    public Edge residual;
-    public long flow, cost;
-    public final long capacity, originalCost;
-
-    public Edge(int from, int to, long capacity) {
-      this(from, to, capacity, 0 /* unused */);
-    }
-
-    public Edge(int from, int to, long capacity, long cost) {
-      this.from = from;
-      this.to = to;
-      this.capacity = capacity;
-      this.originalCost = this.cost = cost;
-    }
 
-    public boolean isResidual() {
-      return capacity == 0;
-    }
-
-    public long remainingCapacity() {
-      return capacity - flow;
-    }
-
-    public void augment(long bottleNeck) {
-      flow += bottleNeck;
-      residual.flow -= bottleNeck;
-    }
+      //  Refill the graph with the edges having remaining capacity
+      int kept = count[n];
+      solver.clearEdges();
+      for(int i = 0; i < kept; i++) solver.addEdge(from[i], to[i], capacity[i]);
+      //  Add an edge from source to sink in the new graph with obtained maximum flow as it's weight
+      solver.addEdge(source, sink, maxFlow);
+      nextVisited[kept] = true;
 
-    public String toString(int s, int t) {
-      String u = (from == s) ? "s" : ((from == t) ? "t" : String.valueOf(from));
-      String v = (to == s) ? "s" : ((to == t) ? "t" : String.valueOf(to));
-      return String.format(
-          "Edge %s -> %s | flow = %d | capacity = %d | is residual: %s",
-          u, v, flow, capacity, isResidual());
+      boolean[] swap = visited;
+      visited = nextVisited;
+      nextVisited = (swap.length >= visited.length) ? swap : new boolean[visited.length];
     }
+    return solver.getEdges();
   }
 
-  // Inputs: n = number of nodes, s = source, t = sink
-  protected int n, s, t;
-
-  protected long maxFlow;
-  protected long minCost;
-
-  protected boolean[] minCut;
-  protected List<Edge>[] graph;
-  protected String[] vertexLabels;
-  protected List<Edge> edges;
-
-  // 'visited' and 'visitedToken' are variables used for graph sub-routines to
-  // track whether a node has been visited or not. In particular, node 'i' was
-  // recently visited if visited[i] == visitedToken is true. This is handy
-  // because to mark all nodes as unvisited simply increment the visitedToken.
-  private int visitedToken = 1;
-  private int[] visited;
-
-  // Indicates whether the network flow algorithm has ran. We should not need to
-  // run the solver multiple times, because it always yields the same result.
-  protected boolean solved;
-
   /**
-   * Creates an instance of a flow network solver. Use the {@link #addEdge} method to add edges to
-   * the graph.
+   * Simplifies the debts of many groups in parallel on the common {@link ForkJoinPool}.
    *
-   * @param n - The number of nodes in the graph including source and sink nodes.
+   * @param groups the groups to simplify.
+   * @param usePushRelabel whether to use the push-relabel solver instead of Dinic's.
+   * @return the simplified debts of each group, in the order of the groups.
    */
-  public NetworkFlowSolverBase(int n, String[] vertexLabels) {
-    this.n = n;
-    initializeGraph();
-    assignLabelsToVertices(vertexLabels);
-    minCut = new boolean[n];
-    visited = new int[n];
-    edges = new ArrayList<>();
-  }
-
-  // Construct an empty graph with n nodes including the source and sink nodes.
-  private void initializeGraph() {
-    graph = new List[n];
-    for (int i = 0; i < n; i++) graph[i] = new ArrayList<Edge>();
-  }
-
-  // Add labels to vertices in the graph.
-  private void assignLabelsToVertices(String[] vertexLabels) {
-    if(vertexLabels.length != n)
-      throw new IllegalArgumentException(String.format("You must pass %s number of labels", n));
-    this.vertexLabels = vertexLabels;
+  public static List<List<Dinics.Edge>> simplifyAll(List<Group> groups, boolean usePushRelabel) {
+    return groups.parallelStream()
+        .map(group -> simplify(group.person, group.debts, usePushRelabel))
+        .collect(Collectors.toList());
   }
 
   /**
-   * Adds a list of directed edges (and residual edges) to the flow graph.
+   * Simplifies the debts of many groups in parallel on the given {@link ForkJoinPool}.
    *
-   * @param edges - A list of all edges to be added to the flow graph.
+   * @param groups the groups to simplify.
+   * @param usePushRelabel whether to use the push-relabel solver instead of Dinic's.
+   * @param pool the pool to run the simplifications on.
+   * @return the simplified debts of each group, in the order of the groups.
    */
-  public void addEdges(List<Edge> edges) {
-    if (edges == null) throw new IllegalArgumentException("Edges cannot be null");
-    for(Edge edge : edges) {
-      addEdge(edge.from, edge.to, edge.capacity);
-    }
+  public static List<List<Dinics.Edge>> simplifyAll(List<Group> groups, boolean usePushRelabel, ForkJoinPool pool) {
+    return pool.submit(() -> simplifyAll(groups, usePushRelabel)).join();
   }
 
   /**
-   * Adds a directed edge (and residual edge) to the flow graph.
+   * Simplifies the debts of a group by splitting it into sub-groups of people with no debts between them, the
+   * weakly connected components of the graph of debts, simplifying those in parallel and merging the results.
    *
-   * @param from - The index of the node the directed edge starts at.
-   * @param to - The index of the node the directed edge ends at.
-   * @param capacity - The capacity of the edge.
-   */
-  public void addEdge(int from, int to, long capacity) {
-    if (capacity < 0) throw new IllegalArgumentException("Capacity < 0");
-    Edge e1 = new Edge(from, to, capacity);
-    Edge e2 = new Edge(to, from, 0);
-    e1.residual = e2;
-    e2.residual = e1;
-    graph[from].add(e1);
-    graph[to].add(e2);
-    edges.add(e1);
-  }
-
-  /** Cost variant of {@link #addEdge(int, int, int)} for min-cost max-flow */
-  public void addEdge(int from, int to, long capacity, long cost) {
-    Edge e1 = new Edge(from, to, capacity, cost);
-    Edge e2 = new Edge(to, from, 0, -cost);
-    e1.residual = e2;
-    e2.residual = e1;
-    graph[from].add(e1);
-    graph[to].add(e2);
-    edges.add(e1);
-  }
-
-  // Marks node 'i' as visited.
-  public void visit(int i) {
-    visited[i] = visitedToken;
-  }
-
-  // Returns whether or not node 'i' has been visited.
-  public boolean visited(int i) {
-    return visited[i] == visitedToken;
-  }
-
-  // Resets all nodes as unvisited. This is especially useful to do
-  // between iterations of finding augmenting paths, O(1)
-  public void markAllNodesAsUnvisited() {
-    visitedToken++;
-  }
-
-  /**
-   * Returns the graph after the solver has been executed. This allow you to inspect the {@link
-   * Edge#flow} compared to the {@link Edge#capacity} in each edge. This is useful if you want to
-   * figure out which edges were used during the max flow.
+   * @param person the names of the people in the group, who are numbered from 0.
+   * @param debts the debts between the people in the group.
+   * @param usePushRelabel whether to use the push-relabel solver instead of Dinic's.
+   * @return the simplified debts, settling the same amounts.
    */
-  public List<Edge>[] getGraph() {
-    execute();
-    return graph;
-  }
-
-  /**
-   * Returns all edges in this flow network
-   */
-  public List<Edge> getEdges() {
-    return edges;
-  }
-
-  // Returns the maximum flow from the source to the sink.
-  public long getMaxFlow() {
-    execute();
-    return maxFlow;
-  }
+  public static List<Dinics.Edge> simplifyByComponent(String[] person, List<Dinics.Edge> debts, boolean usePushRelabel) {
+    int n = person.length;
+    //  Union-find over the people, joining the two people of every debt
+    int[] component = new int[n];
+    for(int i = 0; i < n; i++) component[i] = i;
+    for(Dinics.Edge debt : debts) {
+      component[find(component, debt.from)] = find(component, debt.to);
+    }
 
-  // Returns the min cost from the source to the sink.
-  // NOTE: This method only applies to min-cost max-flow algorithms.
-  public long getMinCost() {
-    execute();
-    return minCost;
-  }
+    //  Number the people of each component from 0, in the order in which they first appear
+    int[] indexInComponent = new int[n];
+    int[] componentOfRoot = new int[n];
+    Arrays.fill(componentOfRoot, -1);
+    List<List<Integer>> members = new ArrayList<>();
+    for(int i = 0; i < n; i++) {
+      int root = find(component, i);
+      if(componentOfRoot[root] == -1) {
+        componentOfRoot[root] = members.size();
+        members.add(new ArrayList<>());
+      }
+      List<Integer> own = members.get(componentOfRoot[root]);
+      indexInComponent[i] = own.size();
+      own.add(i);
+    }
 
-  // Returns the min-cut of this flow network in which the nodes on the "left side"
-  // of the cut with the source are marked as true and those on the "right side"
-  // of the cut with the sink are marked as false.
-  public boolean[] getMinCut() {
-    execute();
-    return minCut;
-  }
+    List<List<Dinics.Edge>> componentDebts = new ArrayList<>(members.size());
+    for(int c = 0; c < members.size(); c++) componentDebts.add(new ArrayList<>());
+    for(Dinics.Edge debt : debts) {
+      componentDebts.get(componentOfRoot[find(component, debt.from)])
+          .add(new Dinics.Edge(indexInComponent[debt.from], indexInComponent[debt.to], debt.capacity));
+    }
+    List<Group> groups = new ArrayList<>();
+    List<List<Integer>> groupMembers = new ArrayList<>();
+    for(int c = 0; c < members.size(); c++) {
+      if(componentDebts.get(c).isEmpty()) continue;  //  people without any debts
+      String[] names = new String[members.get(c).size()];
+      for(int i = 0; i < names.length; i++) names[i] = person[members.get(c).get(i)];
+      groups.add(new Group(names, componentDebts.get(c)));
+      groupMembers.add(members.get(c));
+    }
 
-  /**
-   * Used to set the source for this flow network 
-   */
-  public void setSource(int s) {
-    this.s = s;
+    //  Merge the results, numbering the people as in the whole group again
+    List<List<Dinics.Edge>> simplified = simplifyAll(groups, usePushRelabel);
+    List<Dinics.Edge> result = new ArrayList<>();
+    for(int g = 0; g < groups.size(); g++) {
+      for(Dinics.Edge edge : simplified.get(g)) {
+        List<Integer> own = groupMembers.get(g);
+        result.add(new Dinics.Edge(own.get(edge.from), own.get(edge.to), edge.capacity));
+      }
+    }
+    return result;
   }
 
   /**
-   * Used to set the sink for this flow network 
+   * Settles the debts of a group with the least fees, given the fee per unit of money for a payment
+   * between each two people who have a debt between them. Every person is left with the same net
+   * balance as the debts give them, as with {@link #simplify}, but money may be passed on through
+   * others where that is cheaper. This is a min-cost flow from those who owe money overall to
+   * those who are owed money, along the debts, with the fees as costs.
+   *
+   * @param person the names of the people in the group, who are numbered from 0.
+   * @param debts the debts between the people in the group, each with the fee per unit of money
+   *              for its debtor paying its creditor as its cost.
+   * @return the payments settling the debts with the least fees, each with its fee per unit as its
+   *         cost, in the order of the debts.
    */
-  public void setSink(int t) {
-    this.t = t;
-  }
+  public static List<Dinics.Edge> simplifyWithFees(String[] person, List<Dinics.Edge> debts) {
+    int n = person.length, source = n, sink = n + 1;
+    long[] balance = new long[n];
+    long owed = 0;
+    for(Dinics.Edge debt : debts) {
+      if(debt.cost < 0) throw new IllegalArgumentException("Fee < 0");
+      balance[debt.from] -= debt.capacity;
+      balance[debt.to] += debt.capacity;
+      owed += debt.capacity;
+    }
 
-  /**
-   * Get source for this flow network 
-   */
-  public int getSource() {
-    return s;
+    String[] labels = Arrays.copyOf(person, n + 2);
+    labels[source] = "source";
+    labels[sink] = "sink";
+    //  Cost scaling, as the fees of long chains of payments take many distinct values
+    MinCostMaxFlow solver = new MinCostMaxFlow(n + 2, labels, true);
+    //  Any amount may be paid between two people with a debt between them, the debts only settle
+    //  whatever they add up to, so all of them together is as much as ever needs to be paid
+    for(Dinics.Edge debt : debts) solver.addEdge(debt.from, debt.to, owed, debt.cost);
+    for(int i = 0; i < n; i++) {
+      if(balance[i] < 0) solver.addEdge(source, i, -balance[i], 0);
+      if(balance[i] > 0) solver.addEdge(i, sink, balance[i], 0);
+    }
+    solver.setSource(source);
+    solver.setSink(sink);
+    solver.getMaxFlow();
+
+    List<Dinics.Edge> payments = new ArrayList<>();
+    for(int i = 0; i < debts.size(); i++) {
+      long amount = solver.getEdgeFlow(i);
+      if(amount > 0) payments.add(new Dinics.Edge(solver.getEdgeFrom(i), solver.getEdgeTo(i), amount, debts.get(i).cost));
+    }
+    return payments;
   }
 
-  /**
-   * Get sink for this flow network 
-   */
-  public int getSink() {
-    return t;
+  //  Returns the representative of the component of 'i', halving the path on the way
+  private static int find(int[] component, int i) {
+    while(component[i] != i) {
+      component[i] = component[component[i]];
+      i = component[i];
+    }
+    return i;
   }
 
-  /**
-   * Set 'solved' flag to false to force recomputation of subsequent flows.
-   */
-  public void recompute() {
-    solved = false;
+  private static List<Dinics.Edge> addAllTransactions(List<Dinics.Edge> debts) {
+    //  Transactions made by Bob
+    debts.add(new Dinics.Edge(1, 2, 40));
+    //  Transactions made by Charlie
+    debts.add(new Dinics.Edge(2, 3, 20));
+    //  Transactions made by David
+    debts.add(new Dinics.Edge(3, 4, 50));
+    //  Transactions made by Fred
+    debts.add(new Dinics.Edge(5, 1, 10));
+    debts.add(new Dinics.Edge(5, 2, 30));
+    debts.add(new Dinics.Edge(5, 3, 10));
+    debts.add(new Dinics.Edge(5, 4, 10));
+    //  Transactions made by Gabe
+    debts.add(new Dinics.Edge(6, 1, 30));
+    debts.add(new Dinics.Edge(6, 3, 10));
+    return debts;
   }
 
   /**
-   * Print all edges.
-   */
-  public void printEdges() {
-    for(Edge edge : edges) {
-      System.out.println(String.format("%s ----%s----> %s", vertexLabels[edge.from], edge.capacity, vertexLabels[edge.to]));
+  * Get any non visited edge in the graph
+  * @param visited whether the pair of people of each edge has been visited
+  * @param edgeCount the number of edges in the graph
+  * @return index of a non visited edge, or -1 if there is none
+  */
+  private static int getNonVisitedEdge(boolean[] visited, int edgeCount) {
+    for(int edgePos = edgeCount - 1; edgePos >= 0; edgePos--) {
+      if(!visited[edgePos]) return edgePos;
     }
+    return -1;
   }
-
-  // Wrapper method that ensures we only call solve() once
-  private void execute() {
-    if (solved) return;
-    solved = true;
-    solve();
-  }
-
-  // Method to implement which solves the network flow problem.
-  public abstract void solve();
 }
@@ -20,31 +20,31 @@ import java.io.*;
 @SuppressWarnings("unchecked")
 public class Problem1 implements Runnable {
 
-  static BufferedReader in;
-  static PrintWriter out;
+  static FastReader in;
+  static FastWriter out;
  
   public static void main(String[] args) {
       new Thread(null, new Problem1(), "whatever", 1<<29).start();
   }
  
   public void run() {
-    in = new BufferedReader(new InputStreamReader(System.in));
-    out = new PrintWriter(System.out, false);
+    in = new FastReader(System.in);
+    out = new FastWriter(System.out);
  
     try
     {
       // in = new BufferedReader(new FileReader("A-large (1).in"));
       // out = new PrintWriter("output.txt");
 
-      System.out.print("Enter a binary string : ");
-      String text = in.readLine().trim();
+      out.print("Enter a binary string : ").flush();
+      String text = in.next();
       int textLength = text.length();
 
-      System.out.print("Enter the number of times to do the operation(i.e. replace 1 with 10 and 0 with 01) : ");
-      int times = Integer.parseInt(in.readLine().trim());
+      out.print("Enter the number of times to do the operation(i.e. replace 1 with 10 and 0 with 01) : ").flush();
+      int times = in.nextInt();
 
-      System.out.print("Enter the position in the resultant string you want to query : ");
-      long positionInResultantString = Long.parseLong(in.readLine().trim()) - 1;
+      out.print("Enter the position in the resultant string you want to query : ").flush();
+      long positionInResultantString = in.nextLong() - 1;
 
       List<Long> pathToResultantPosition = new ArrayList<>();
       long curPosition = positionInResultantString;
@@ -61,7 +61,8 @@ public class Problem1 implements Runnable {
         bit = (position%2 == 0L) ? bit : (1-bit);
       }
 
-      System.out.println(String.format("Character at position %s in resultant string is : %s", positionInResultantString + 1, bit));
+      out.print("Character at position ").print(positionInResultantString + 1)
+         .print(" in resultant string is : ").print(bit).println();
 
       out.flush();
       out.close();
@@ -0,0 +1,392 @@
+//  SortedList which keeps an aggregate, such as a sum, minimum or maximum, of the values in every
+//  subtree.  The aggregates are kept up to date through the updateAdditionalCachedValues hook of its
+//  nodes, which SortedList calls on every node whose subtree changes, including after rotations.
+//  Supports one additional operation over SortedList,
+//    1) rangeAggregate - Combining all the elements between two keys in time O(log(n)), rather than
+//                        iterating over the k elements in the range.
+//  The list serializes like a SortedList, its monoid along with it, and the aggregates are
+//  rebuilt as the tree is, so the monoids here are all serializable.
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+public class AugmentedSortedList<T, A> extends SortedList<T> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Comparator<? super T> comparator;
+  private final Monoid<? super T, A> monoid;
+
+    /**
+     * An associative way of combining aggregates which has an identity, along with the aggregate of
+     * a single element.  {@code combine} need not be commutative, it is always given the aggregate
+     * of the smaller elements first.  A monoid is serialized along with its list, so it must be
+     * serializable for the list to be.
+     *
+     * @param T the type of the elements.
+     * @param A the type of the aggregate.
+     */
+    public interface Monoid<T, A> extends Serializable {
+
+        /**
+         * Returns the aggregate of no elements, such that combining it with any other aggregate
+         * gives back that aggregate.
+         *
+         * @return the identity aggregate.
+         */
+        A identity();
+
+        /**
+         * Returns the aggregate of a single element.
+         *
+         * @param value the element.
+         * @return the aggregate of just the given element.
+         */
+        A lift(T value);
+
+        /**
+         * Returns the aggregate of the elements of two adjacent ranges.
+         *
+         * @param left the aggregate of the range of smaller elements.
+         * @param right the aggregate of the range of larger elements.
+         * @return the aggregate of both ranges.
+         */
+        A combine(A left, A right);
+    }
+
+    /**
+     * Constructs a new, empty AugmentedSortedList which sorts the elements according to the given
+     * {@code Comparator} and aggregates them using the given {@code Monoid}.
+     *
+     * @param comparator the {@code Comparator} to sort the elements by.
+     * @param monoid the {@code Monoid} to aggregate the elements with.
+     */
+    public AugmentedSortedList(Comparator<? super T> comparator, Monoid<? super T, A> monoid){
+      super(comparator);
+      this.comparator = comparator;
+      this.monoid = monoid;
+    }
+
+    /**
+     * A long valued property of the elements which can be serialized along with a {@code Monoid}
+     * using it, as any lambda or method reference given where one is expected can.
+     *
+     * @param T the type of the elements.
+     */
+    public interface LongProperty<T> extends ToLongFunction<T>, Serializable {
+    }
+
+    /**
+     * Returns a {@code Monoid} which sums the given long valued property of the elements.
+     *
+     * @param property the property to sum.
+     * @return a {@code Monoid} summing the given property.
+     */
+    public static <T> Monoid<T, Long> sum(LongProperty<? super T> property){
+        return new Sum<T>(property);
+    }
+
+    /**
+     * Returns a {@code Monoid} which finds the smallest element according to the given
+     * {@code Comparator}, the aggregate of no elements being <code>null</code>.  The monoid is
+     * serializable when the {@code Comparator} is.
+     *
+     * @param comparator the {@code Comparator} to compare the elements by.
+     * @return a {@code Monoid} finding the minimum element.
+     */
+    public static <T> Monoid<T, T> min(Comparator<? super T> comparator){
+        return new Min<T>(comparator);
+    }
+
+    /**
+     * Returns a {@code Monoid} which finds the largest element according to the given
+     * {@code Comparator}, the aggregate of no elements being <code>null</code>.  The monoid is
+     * serializable when the {@code Comparator} is.
+     *
+     * @param comparator the {@code Comparator} to compare the elements by.
+     * @return a {@code Monoid} finding the maximum element.
+     */
+    public static <T> Monoid<T, T> max(Comparator<? super T> comparator){
+        return min(comparator.reversed());
+    }
+
+    /**
+     * Returns a {@code Monoid} which counts the distinct elements of a range.  As the elements of a
+     * range are sorted, it is enough to know the first and last element of two adjacent ranges to
+     * tell whether they share a value.  The list must be sorted by the given {@code Comparator}.
+     * The monoid is serializable when the {@code Comparator} is.
+     *
+     * @param comparator the {@code Comparator} the list is sorted by.
+     * @return a {@code Monoid} counting the distinct elements.
+     */
+    public static <T> Monoid<T, DistinctCount<T>> countDistinct(Comparator<? super T> comparator){
+        return new CountDistinct<T>(comparator);
+    }
+
+    //The monoids returned by the factories above..
+
+    private static final class Sum<T> implements Monoid<T, Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final LongProperty<? super T> property;
+
+        private Sum(LongProperty<? super T> property){
+            this.property = property;
+        }
+
+        public Long identity(){ return 0L; }
+        public Long lift(T value){ return property.applyAsLong(value); }
+        public Long combine(Long left, Long right){ return left + right; }
+    }
+
+    private static final class Min<T> implements Monoid<T, T> {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparator<? super T> comparator;
+
+        private Min(Comparator<? super T> comparator){
+            this.comparator = comparator;
+        }
+
+        public T identity(){ return null; }
+        public T lift(T value){ return value; }
+        public T combine(T left, T right){
+            if(left == null || right == null){
+                return (left == null) ? right : left;
+            }
+            return (comparator.compare(right, left) < 0) ? right : left;
+        }
+    }
+
+    private static final class CountDistinct<T> implements Monoid<T, DistinctCount<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparator<? super T> comparator;
+        private final DistinctCount<T> none = new DistinctCount<T>(null, null, 0);
+
+        private CountDistinct(Comparator<? super T> comparator){
+            this.comparator = comparator;
+        }
+
+        public DistinctCount<T> identity(){ return none; }
+        public DistinctCount<T> lift(T value){ return new DistinctCount<T>(value, value, 1); }
+        public DistinctCount<T> combine(DistinctCount<T> left, DistinctCount<T> right){
+            if(left.count == 0 || right.count == 0){
+                return (left.count == 0) ? right : left;
+            }
+            int shared = (comparator.compare(left.last, right.first) == 0) ? 1 : 0;
+            return new DistinctCount<T>(left.first, right.last, left.count + right.count - shared);
+        }
+    }
+
+    /**
+     * Aggregate used by {@code #countDistinct(Comparator)}.
+     */
+    public static final class DistinctCount<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final T first;
+        private final T last;
+        private final int count;
+
+        private DistinctCount(T first, T last, int count){
+            this.first = first;
+            this.last = last;
+            this.count = count;
+        }
+
+        /**
+         * Returns the number of distinct elements in the range.
+         *
+         * @return the number of distinct elements.
+         */
+        public int getCount(){
+            return count;
+        }
+    }
+
+    @Override
+    protected Node createNode(T value){
+        return new AugmentedNode(value);
+    }
+
+    /**
+     * Returns the aggregate of all elements in this list.
+     *
+     * @return the aggregate of all elements, or the identity if the list is empty.
+     */
+    public A aggregate(){
+        return aggregateOf(root());
+    }
+
+    /**
+     * Returns the aggregate of the elements between the given keys, both inclusive.
+     *
+     * @param fromKey the lower bound of the range.
+     * @param toKey the upper bound of the range.
+     * @return the aggregate of the elements in the range, see {@code #rangeAggregate(Object, boolean, Object, boolean)}.
+     */
+    public A rangeAggregate(T fromKey, T toKey){
+        return rangeAggregate(fromKey, true, toKey, true);
+    }
+
+    /**
+     * Returns the aggregate of the elements between the given keys.
+     * <p>
+     * This walks down to the highest node in the range, then down either side of it combining
+     * the cached aggregates of the subtrees which lie wholly inside the range, and hence works in
+     * time <i>O(log(n))</i> whatever the number of elements in the range.
+     *
+     * @param fromKey the lower bound of the range.
+     * @param fromInclusive whether elements equal to the lower bound are part of the range.
+     * @param toKey the upper bound of the range.
+     * @param toInclusive whether elements equal to the upper bound are part of the range.
+     * @return the aggregate of the elements in the range, or the identity if it is empty.
+     */
+    public A rangeAggregate(T fromKey, boolean fromInclusive, T toKey, boolean toInclusive){
+        AugmentedNode current = root();
+        while(current != null){
+            if(isBelow(current.getValue(), fromKey, fromInclusive)){
+                current = right(current);
+            } else if(isAbove(current.getValue(), toKey, toInclusive)){
+                current = left(current);
+            } else {
+                break;
+            }
+        }
+        if(current == null){
+            return monoid.identity();
+        }
+        A result = monoid.combine(aggregateFrom(left(current), fromKey, fromInclusive), monoid.lift(current.getValue()));
+        return monoid.combine(result, aggregateTo(right(current), toKey, toInclusive));
+    }
+
+    //Aggregate of the elements of the given subtree which are not below the lower bound..
+    private A aggregateFrom(AugmentedNode node, T fromKey, boolean inclusive){
+        A result = monoid.identity();
+        while(node != null){
+            if(isBelow(node.getValue(), fromKey, inclusive)){
+                node = right(node);
+            } else { //this node and its right subtree are in range, and larger than anything seen so far..
+                result = monoid.combine(monoid.combine(monoid.lift(node.getValue()), aggregateOf(right(node))), result);
+                node = left(node);
+            }
+        }
+        return result;
+    }
+
+    //Aggregate of the elements of the given subtree which are not above the upper bound..
+    private A aggregateTo(AugmentedNode node, T toKey, boolean inclusive){
+        A result = monoid.identity();
+        while(node != null){
+            if(isAbove(node.getValue(), toKey, inclusive)){
+                node = left(node);
+            } else { //this node and its left subtree are in range, and smaller than anything still to come..
+                result = monoid.combine(monoid.combine(result, aggregateOf(left(node))), monoid.lift(node.getValue()));
+                node = right(node);
+            }
+        }
+        return result;
+    }
+
+    private boolean isBelow(T value, T fromKey, boolean inclusive){
+        int comparison = comparator.compare(value, fromKey);
+        return comparison < 0 || (comparison == 0 && !inclusive);
+    }
+
+    private boolean isAbove(T value, T toKey, boolean inclusive){
+        int comparison = comparator.compare(value, toKey);
+        return comparison > 0 || (comparison == 0 && !inclusive);
+    }
+
+    private A aggregateOf(AugmentedNode node){
+        return (node == null) ? monoid.identity() : node.aggregate;
+    }
+
+    //Every node of this list is created through createNode, and copied through AugmentedNode#copy,
+    //so every Node reached from it is an AugmentedNode of this list.  The casts below are unchecked
+    //only because AugmentedNode is an inner class of a generic class, and always hold..
+    @SuppressWarnings("unchecked")
+    private AugmentedNode root(){
+        return (AugmentedNode) getRoot();
+    }
+
+    @SuppressWarnings("unchecked")
+    private AugmentedNode left(AugmentedNode node){
+        return (AugmentedNode) node.getLeftChild();
+    }
+
+    @SuppressWarnings("unchecked")
+    private AugmentedNode right(AugmentedNode node){
+        return (AugmentedNode) node.getRightChild();
+    }
+
+    //SortedList#readObject builds the tree before the monoid has been read, leaving every aggregate
+    //unset, so they are all computed here in one post-order pass once the monoid is back..
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if(monoid == null){
+            throw new InvalidObjectException("An AugmentedSortedList needs a monoid.");
+        }
+        computeAggregates(root());
+    }
+
+    private void computeAggregates(AugmentedNode node){
+        if(node == null){
+            return;
+        }
+        computeAggregates(left(node));
+        computeAggregates(right(node));
+        node.updateAdditionalCachedValues();
+    }
+
+   /**
+    * Node which caches the aggregate of the elements in the subtree rooted at it.
+    */
+   protected class AugmentedNode extends Node {
+
+       private A aggregate;
+
+       /**
+        * Constructs a new AugmentedNode which initially just stores the given value.
+        *
+        * @param t the value which this node will store.
+        */
+       protected AugmentedNode(T t){
+           super(t);
+           if(monoid != null){ //null only while the list is being deserialized, see readObject..
+               aggregate = monoid.lift(t);
+           }
+       }
+
+       /**
+        * Constructs a copy of the given node, including its cached aggregate.
+        *
+        * @param original the node to copy.
+        */
+       protected AugmentedNode(AugmentedNode original){
+           super(original);
+           aggregate = original.aggregate;
+       }
+
+       @Override
+       protected Node copy(){
+           return new AugmentedNode(this);
+       }
+
+       /**
+        * Recomputes the aggregate of this subtree from those of its children.
+        */
+       @Override
+       protected void updateAdditionalCachedValues(){
+           if(monoid == null){ //being deserialized, readObject computes every aggregate later..
+               return;
+           }
+           A withLeft = monoid.combine(aggregateOf(left(this)), monoid.lift(getValue()));
+           aggregate = monoid.combine(withLeft, aggregateOf(right(this)));
+       }
+   } //End of inner class: AugmentedNode.
+}
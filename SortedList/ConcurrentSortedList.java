@@ -0,0 +1,500 @@
+//  Thread-safe SortedList whose readers never block while no write is in progress.
+//  Reads first walk the tree under a StampedLock optimistic stamp and only take the read lock
+//  when a writer got in the way.  An optimistic walk may observe the tree half way through a
+//  rotation, so it is bounded by the largest possible AVL height and any failure it runs into
+//  simply sends the read to the locked path.  Writers take the write lock, and batches of
+//  insertions are applied under a single acquisition using the bulk path of SortedList#addAll.
+//  Iterators read a snapshot of the list which is shared by every iteration until the next write,
+//  and so do the index searches, list iterators and sub lists, so each of them sees the list as it
+//  was at one point in time.  They are read only, bulk removals instead run under the write lock.
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+public class ConcurrentSortedList<T> extends AbstractList<T> {
+
+  //an AVL tree holding at most 2^31 elements is less than 1.45 * 31 levels high..
+  private static final int MAX_STEPS = 64;
+
+  private final SortedList<T> list;
+  private final Comparator<? super T> comparator;
+  private final StampedLock lock = new StampedLock();
+
+  //The snapshot of the list as it is now, or null when it has been written to since the last one
+  //was taken, see #snapshot()..
+  private volatile SortedList<T>.Snapshot published;
+
+    /**
+     * Constructs a new, empty ConcurrentSortedList which sorts the elements
+     * according to the given {@code Comparator}.
+     *
+     * @param comparator the {@code Comparator} to sort the elements by.
+     */
+    public ConcurrentSortedList(Comparator<? super T> comparator){
+      this.list = new SortedList<T>(comparator);
+      this.comparator = comparator;
+    }
+
+    /**
+     * Inserts the given object into the list, see {@code SortedList#add(Object)}.
+     *
+     * @param object the object to add.
+     * @return false when the given object is null and true otherwise.
+     */
+    @Override
+    public boolean add(T object){
+        long stamp = lock.writeLock();
+        try {
+            unpublish();
+            return list.add(object);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds all of the non-<code>null</code> elements in the given collection under a single
+     * acquisition of the write lock, see {@code SortedList#addAll(Collection)}.
+     *
+     * @param c the elements to add.
+     * @return {@code true} if the list changed as a result of the call.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c){
+        @SuppressWarnings("unchecked")
+        List<T> batch = (List<T>) Arrays.asList(c.toArray()); //copied outside the lock, c may even be this list..
+        long stamp = lock.writeLock();
+        try {
+            unpublish();
+            return list.addAll(batch);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the first element in the list with the given value, see {@code SortedList#remove(Object)}.
+     *
+     * @param value the object to remove.
+     * @return <code>true</code> if the given object was found and removed, <code>false</code> otherwise.
+     */
+    @Override
+    public boolean remove(Object value){
+        long stamp = lock.writeLock();
+        try {
+            unpublish();
+            return list.remove(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every element of the list matching the given predicate under a single acquisition of
+     * the write lock, so no other thread sees the list with only some of them removed.  The
+     * predicate must not call back into this list, which would wait for the write lock forever.
+     *
+     * @param filter the predicate of the elements to remove.
+     * @return {@code true} if any element was removed.
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter){
+        Objects.requireNonNull(filter);
+        long stamp = lock.writeLock();
+        try {
+            unpublish();
+            return list.removeIf(filter);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every element of the list which the given collection contains, atomically, see
+     * {@link #removeIf(Predicate)}.
+     *
+     * @param c the elements to remove.
+     * @return {@code true} if the list changed as a result of the call.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c){
+        Collection<?> batch = outsideLock(c);
+        return removeIf(batch::contains);
+    }
+
+    /**
+     * Removes every element of the list which the given collection does not contain, atomically,
+     * see {@link #removeIf(Predicate)}.
+     *
+     * @param c the elements to keep.
+     * @return {@code true} if the list changed as a result of the call.
+     */
+    @Override
+    public boolean retainAll(Collection<?> c){
+        Collection<?> batch = outsideLock(c);
+        return removeIf(value -> !batch.contains(value));
+    }
+
+    /**
+     * Removes all elements from the list, leaving it empty.
+     */
+    @Override
+    public void clear(){
+        long stamp = lock.writeLock();
+        try {
+            unpublish();
+            list.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of elements in the list.
+     *
+     * @return the number of elements in the list.
+     */
+    @Override
+    public int size(){
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0){
+            try {
+                SortedList<T>.Node root = list.getRoot();
+                int size = (root == null) ? 0 : root.sizeOfSubTree();
+                if(lock.validate(stamp)){
+                    return size;
+                }
+            } catch(RuntimeException e){
+                //inconsistent view of the tree, fall back to the read lock..
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the element at the given index, see {@code SortedList#get(int)}.
+     *
+     * @param index the index of the element to get.
+     * @return the element at the given index.
+     * @throws IllegalArgumentException in the case that the index is not a valid index.
+     */
+    @Override
+    public T get(int index){
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0){
+            try {
+                SortedList<T>.Node node = findNodeAtIndex(index);
+                if(node != null){
+                    T value = node.getValue();
+                    if(lock.validate(stamp)){
+                        return value;
+                    }
+                }
+            } catch(RuntimeException e){
+                //inconsistent view of the tree, fall back to the read lock..
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.get(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the largest element strictly less than the given element.
+     *
+     * @param value the element to search for.
+     * @return largest element strictly less than given element, or <code>null</code> if there is none.
+     */
+    public T lower(T value){
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0){
+            try {
+                T lower = lowerOptimistically(value);
+                if(lock.validate(stamp)){
+                    return lower;
+                }
+            } catch(RuntimeException e){
+                //inconsistent view of the tree, fall back to the read lock..
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return lowerOptimistically(value); //the walk can not fail while the lock is held..
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the position of the element in ascending order, see {@code SortedList#findInOrderPosition(Object)}.
+     *
+     * @param value the element to search for.
+     * @return position of the element in ascending order.
+     */
+    public int findInOrderPosition(T value){
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0){
+            try {
+                int position = findInOrderPositionOptimistically(value);
+                if(lock.validate(stamp)){
+                    return position;
+                }
+            } catch(RuntimeException e){
+                //inconsistent view of the tree, fall back to the read lock..
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.findInOrderPosition(value);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns whether or not the given object is present in the list.
+     *
+     * @param obj the object to check for.
+     * @return true if the given object is present in the list.
+     */
+    @Override
+    public boolean contains(Object obj){
+        if(obj == null){
+            return false;
+        }
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0){
+            try {
+                @SuppressWarnings("unchecked")
+                boolean found = containsOptimistically((T) obj);
+                if(lock.validate(stamp)){
+                    return found;
+                }
+            } catch(ClassCastException e){
+                throw e;
+            } catch(RuntimeException e){
+                //inconsistent view of the tree, fall back to the read lock..
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return list.contains(obj);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns an immutable view of the current contents of the list, see {@code SortedList#snapshot()},
+     * which can be read from any thread without any locking.
+     * <p>
+     * One snapshot is shared by every call until the list is next written to, and returning it
+     * costs a volatile read.  The first call after a write takes the read lock to take a new
+     * snapshot, in constant time, so it never waits for other readers, only for a write in
+     * progress, and it does not disturb optimistic reads.  The first write after a snapshot has
+     * been taken then copies the <i>O(log(n))</i> nodes on the path it alters.
+     *
+     * @return an immutable view of the current contents of the list.
+     */
+    public SortedList<T>.Snapshot snapshot(){
+        SortedList<T>.Snapshot snapshot = published;
+        if(snapshot != null){
+            return snapshot;
+        }
+        long stamp = lock.readLock();
+        try {
+            //readers may race to take a snapshot here, but they can only bump the generation of a
+            //list none of them alters, so each of their snapshots is a valid one..
+            snapshot = list.snapshot();
+            published = snapshot;
+            return snapshot;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the list taken at the time of the call, so it
+     * never throws {@code ConcurrentModificationException} and does not support removal.
+     * Starting an iteration costs as much as {@link #snapshot()}, and each step after that is a
+     * step of an in-order walk of the snapshot's tree, without any locking.
+     *
+     * @return an iterator over the elements of the list at the time of the call.
+     */
+    @Override
+    public Iterator<T> iterator(){
+        return snapshot().iterator();
+    }
+
+    /**
+     * Returns the index of the first occurrence of the given element in a snapshot of the list
+     * taken at the time of the call, or -1 if it holds none.
+     *
+     * @param obj the element to search for.
+     * @return the index of the first occurrence of the element, or -1.
+     */
+    @Override
+    public int indexOf(Object obj){
+        return snapshot().indexOf(obj);
+    }
+
+    /**
+     * Returns the index of the last occurrence of the given element in a snapshot of the list
+     * taken at the time of the call, or -1 if it holds none.
+     *
+     * @param obj the element to search for.
+     * @return the index of the last occurrence of the element, or -1.
+     */
+    @Override
+    public int lastIndexOf(Object obj){
+        return snapshot().lastIndexOf(obj);
+    }
+
+    /**
+     * Returns a read only list iterator over a snapshot of the list taken at the time of the call.
+     *
+     * @param index the index of the first element to be returned by {@code next}.
+     * @return a list iterator over the elements of the list at the time of the call.
+     * @throws IndexOutOfBoundsException in the case that the index is not valid for the snapshot.
+     */
+    @Override
+    public ListIterator<T> listIterator(int index){
+        return snapshot().listIterator(index);
+    }
+
+    /**
+     * Returns a read only view of the given range of a snapshot of the list taken at the time of
+     * the call, which later changes to the list do not show through.
+     *
+     * @param fromIndex the index of the first element of the view.
+     * @param toIndex one past the index of the last element of the view.
+     * @return a view of the elements at the given indices of the snapshot.
+     * @throws IndexOutOfBoundsException in the case that the indices are not valid for the snapshot.
+     */
+    @Override
+    public List<T> subList(int fromIndex, int toIndex){
+        return snapshot().subList(fromIndex, toIndex);
+    }
+
+    //Returns a collection whose contains can be called while holding the write lock: the list itself
+    //is swapped for a snapshot, as its own contains may wait for the lock..
+    private Collection<?> outsideLock(Collection<?> c){
+        Objects.requireNonNull(c);
+        return (c == this) ? snapshot() : c;
+    }
+
+    //Drops the published snapshot before a write, under the write lock.  Reading the volatile field
+    //first also makes the generation a snapshot taker bumped under the read lock visible to this
+    //writer: its write of the field comes before its unlockRead and so before this read..
+    private void unpublish(){
+        if(published != null){
+            published = null;
+        }
+    }
+
+    //The walks below mirror those of SortedList but give up after MAX_STEPS, as under an optimistic
+    //stamp a concurrent rotation may briefly link two nodes to each other..
+
+    private SortedList<T>.Node findNodeAtIndex(int index){
+        SortedList<T>.Node current = list.getRoot();
+        if(current == null || index < 0 || index > current.sizeOfSubTree() - 1){
+            return null; //let the locked path throw the exception..
+        }
+        int totalSmallerElements = sizeOf(current.getLeftChild());
+        for(int steps = 0; steps < MAX_STEPS; steps++){
+            if(totalSmallerElements == index){
+                return current;
+            }
+            if(totalSmallerElements > index){ //go left..
+                current = current.getLeftChild();
+                totalSmallerElements -= 1 + sizeOf(current.getRightChild());
+            } else { //go right..
+                current = current.getRightChild();
+                totalSmallerElements += 1 + sizeOf(current.getLeftChild());
+            }
+        }
+        throw InconsistentReadException.INSTANCE;
+    }
+
+    private T lowerOptimistically(T value){
+        T candidate = null;
+        SortedList<T>.Node current = list.getRoot();
+        for(int steps = 0; steps < MAX_STEPS; steps++){
+            if(current == null){
+                return candidate;
+            }
+            if(comparator.compare(value, current.getValue()) > 0){
+                candidate = current.getValue();
+                current = current.getRightChild();
+            } else {
+                current = current.getLeftChild();
+            }
+        }
+        throw InconsistentReadException.INSTANCE;
+    }
+
+    private int findInOrderPositionOptimistically(T value){
+        SortedList<T>.Node current = list.getRoot();
+        int pos = 0;
+        for(int steps = 0; steps < MAX_STEPS; steps++){
+            if(current == null){
+                return pos - 1;
+            }
+            int comparison = comparator.compare(current.getValue(), value);
+            if(comparison == 0){
+                return pos + sizeOf(current.getLeftChild());
+            } else if(comparison < 0){ //need to go right..
+                pos += 1 + sizeOf(current.getLeftChild());
+                current = current.getRightChild();
+            } else {
+                current = current.getLeftChild();
+            }
+        }
+        throw InconsistentReadException.INSTANCE;
+    }
+
+    private boolean containsOptimistically(T value){
+        SortedList<T>.Node current = list.getRoot();
+        for(int steps = 0; steps < MAX_STEPS; steps++){
+            if(current == null){
+                return false;
+            }
+            int comparison = comparator.compare(current.getValue(), value);
+            if(comparison == 0){
+                return true;
+            }
+            current = (comparison < 0) ? current.getRightChild() : current.getLeftChild();
+        }
+        throw InconsistentReadException.INSTANCE;
+    }
+
+    private static int sizeOf(SortedList<?>.Node node){
+        return (node == null) ? 0 : node.sizeOfSubTree();
+    }
+
+    //Thrown when an optimistic walk takes more steps than any consistent tree would need..
+    private static final class InconsistentReadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private static final InconsistentReadException INSTANCE = new InconsistentReadException();
+
+        private InconsistentReadException(){
+            super("Optimistic read saw an inconsistent tree.", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+//  Encodes the elements of a SortedList to and from a ByteBuffer, for SortedList#writeTo and
+//  SortedList#readFrom.  Implementations signal a full or exhausted buffer through the usual
+//  BufferOverflowException and BufferUnderflowException; the caller then rewinds the buffer to
+//  where the element started, drains or refills it, and tries the same element again.
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public interface ElementCodec<T> {
+
+    /**
+     * Writes the given element at the current position of the buffer.
+     *
+     * @param value the element to write, never <code>null</code>.
+     * @param out the buffer to write to.
+     * @throws BufferOverflowException if the element does not fit in the remaining space.
+     */
+    void encode(T value, ByteBuffer out);
+
+    /**
+     * Reads an element from the current position of the buffer.
+     *
+     * @param in the buffer to read from.
+     * @return the element read.
+     * @throws BufferUnderflowException if the buffer does not hold the whole element.
+     */
+    T decode(ByteBuffer in);
+
+    /**
+     * Codec writing each element as 8 bytes.
+     */
+    ElementCodec<Long> LONG = new ElementCodec<Long>(){
+        public void encode(Long value, ByteBuffer out){ out.putLong(value); }
+        public Long decode(ByteBuffer in){ return in.getLong(); }
+    };
+
+    /**
+     * Codec writing each element as 4 bytes.
+     */
+    ElementCodec<Integer> INTEGER = new ElementCodec<Integer>(){
+        public void encode(Integer value, ByteBuffer out){ out.putInt(value); }
+        public Integer decode(ByteBuffer in){ return in.getInt(); }
+    };
+
+    /**
+     * Codec writing each element as its length in bytes followed by its UTF-8 encoding.
+     */
+    ElementCodec<String> STRING = new ElementCodec<String>(){
+        public void encode(String value, ByteBuffer out){
+            ByteBuffer encoded = StandardCharsets.UTF_8.encode(value);
+            if(out.remaining() < 4 + encoded.remaining()){
+                throw new BufferOverflowException();
+            }
+            out.putInt(encoded.remaining());
+            out.put(encoded);
+        }
+
+        public String decode(ByteBuffer in){
+            if(in.remaining() < 4){
+                throw new BufferUnderflowException();
+            }
+            int length = in.getInt(in.position());
+            if(in.remaining() < 4 + length){
+                throw new BufferUnderflowException();
+            }
+            ByteBuffer encoded = in.duplicate();
+            encoded.position(in.position() + 4).limit(in.position() + 4 + length);
+            in.position(in.position() + 4 + length);
+            return StandardCharsets.UTF_8.decode(encoded).toString();
+        }
+    };
+}
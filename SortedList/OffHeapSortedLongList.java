@@ -0,0 +1,580 @@
+//  SortedList of primitive long values whose AVL nodes live outside the Java heap.
+//  Nodes are fixed width records in an arena of ByteBuffer chunks, which are either direct buffers
+//  or regions of a memory-mapped file.  In the latter case the file holds the complete tree, so
+//  reopening it after a restart gives back the list at once, without rebuilding anything.
+//  Supports the same operations as SortedList: add, remove, contains, get, lower and findInOrderPosition.
+//
+//  File layout (little endian):
+//    header  - magic, version, root, free-list head and number of slots used, padded to 64 bytes.
+//    nodes   - 32 byte records: value(long) left(int) right(int) parent(int) subTreeSize(int) height(int).
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class OffHeapSortedLongList implements Closeable {
+
+  //index used in place of a null child, parent or root..
+  private static final int NIL = -1;
+
+  private static final int MAGIC = 0x534c4f48;
+  private static final int VERSION = 1;
+
+  //header fields..
+  private static final int HEADER_BYTES = 64;
+  private static final int MAGIC_OFFSET = 0;
+  private static final int VERSION_OFFSET = 4;
+  private static final int ROOT_OFFSET = 8;
+  private static final int FREE_LIST_OFFSET = 12;
+  private static final int SLOTS_USED_OFFSET = 16;
+
+  //node record fields..
+  private static final int NODE_SHIFT = 5;
+  private static final int NODE_BYTES = 1 << NODE_SHIFT;
+  private static final int VALUE = 0;
+  private static final int LEFT = 8;
+  private static final int RIGHT = 12;
+  private static final int PARENT = 16;
+  private static final int SIZE = 20;
+  private static final int HEIGHT = 24;
+
+  //nodes are allocated in chunks of 2^16 records, 2MB each..
+  private static final int CHUNK_SHIFT = 16;
+  private static final int CHUNK_NODES = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_NODES - 1;
+  private static final long CHUNK_BYTES = (long) CHUNK_NODES * NODE_BYTES;
+
+  private final FileChannel channel; //null when the arena is not backed by a file..
+  private final ByteBuffer header;
+  private ByteBuffer[] chunks = new ByteBuffer[0];
+
+  private int root;
+  private int freeList; //first free slot, further free slots are chained through the left field..
+  private int slotsUsed; //slots at or above this index have never been handed out..
+
+    private OffHeapSortedLongList(FileChannel channel, ByteBuffer header){
+      this.channel = channel;
+      this.header = header;
+    }
+
+    /**
+     * Creates a new, empty {@code OffHeapSortedLongList} whose nodes are kept in direct buffers.
+     *
+     * @return a new empty list.
+     */
+    public static OffHeapSortedLongList allocate(){
+        ByteBuffer header = ByteBuffer.allocateDirect(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        OffHeapSortedLongList list = new OffHeapSortedLongList(null, header);
+        list.initialiseHeader();
+        return list;
+    }
+
+    /**
+     * Opens the {@code OffHeapSortedLongList} stored in the given file, creating an empty one if the
+     * file does not exist or is empty.  The nodes are memory-mapped, so opening an existing list
+     * works in time proportional to the number of chunks rather than the number of elements.
+     * <p>
+     * Changes are written through to the mapping; call {@code #force()} to make sure they have
+     * reached the storage device.
+     *
+     * @param file the file holding the list.
+     * @return the list stored in the given file.
+     * @throws IOException if the file can not be opened or does not hold a list.
+     */
+    public static OffHeapSortedLongList open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean isNew = channel.size() == 0;
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            OffHeapSortedLongList list = new OffHeapSortedLongList(channel, header);
+            if(isNew){
+                list.initialiseHeader();
+            } else {
+                list.readHeader();
+            }
+            return list;
+        } catch(IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts the given value into this list, equal values are placed after those already
+     * in the list.  Works in time <i>O(log(n))</i>.
+     *
+     * @param value the value to add.
+     * @return true, as the list is always altered.
+     */
+    public boolean add(long value){
+        int node = allocateNode(value);
+        if(root == NIL){
+            setRoot(node);
+            return true;
+        }
+
+        int current = root;
+        while(true){
+            if(value < value(current)){
+                if(left(current) == NIL){
+                    setLeft(current, node);
+                    break;
+                }
+                current = left(current);
+            } else {
+                if(right(current) == NIL){
+                    setRight(current, node);
+                    break;
+                }
+                current = right(current);
+            }
+        }
+        setParent(node, current);
+        rebalanceTree(current);
+        return true;
+    }
+
+    /**
+     * Removes one occurrence of the given value from this list, if present.
+     * Works in time <i>O(log(n))</i>.
+     *
+     * @param value the value to remove.
+     * @return <code>true</code> if the value was found and removed, <code>false</code> otherwise.
+     */
+    public boolean remove(long value){
+        int toRemove = findNodeWithValue(value);
+        if(toRemove == NIL){
+            return false;
+        }
+        if(left(toRemove) != NIL && right(toRemove) != NIL){
+            //move the successor's value here, then remove the successor which has at most one child..
+            int successor = smallestNodeInSubTree(right(toRemove));
+            setValue(toRemove, value(successor));
+            toRemove = successor;
+        }
+
+        int child = (left(toRemove) != NIL) ? left(toRemove) : right(toRemove);
+        int parentOfRemoved = parent(toRemove);
+        replaceChild(parentOfRemoved, toRemove, child);
+        freeNode(toRemove);
+        rebalanceTree(parentOfRemoved);
+        return true;
+    }
+
+    /**
+     * Returns whether or not the given value is present in this list.
+     * Works in time <i>O(log(n))</i>.
+     *
+     * @param value the value to check for.
+     * @return true if the given value is present in this list.
+     */
+    public boolean contains(long value){
+        return findNodeWithValue(value) != NIL;
+    }
+
+    /**
+     * Returns the value at the given index, that is the "index"th smallest value, counting
+     * from 0-<i>n</i>-1.  Works in time <i>O(log(n))</i>.
+     *
+     * @param index the index of the value to get.
+     * @return the value at the given index in this list.
+     * @throws IllegalArgumentException in the case that the index is not a valid index.
+     */
+    public long get(int index){
+        return value(findNodeAtIndex(index));
+    }
+
+    /**
+     * Returns the largest value strictly less than the given value.
+     *
+     * @param value the value to search for.
+     * @return largest value strictly less than given value.
+     * @throws NoSuchElementException in the case there is no value less than the given value.
+     */
+    public long lower(long value){
+        int candidate = NIL;
+        int current = root;
+        while(current != NIL){
+            if(value(current) < value){
+                candidate = current;
+                current = right(current);
+            } else {
+                current = left(current);
+            }
+        }
+        if(candidate == NIL){
+            throw new NoSuchElementException("No value less than " + value);
+        }
+        return value(candidate);
+    }
+
+    /**
+     * Returns the position of the first occurrence of the given value in ascending order.  If the
+     * value is absent, the position of the largest value smaller than it is returned, which is
+     * -1 when there is no such value.
+     *
+     * @param value the value to search for.
+     * @return position of the value in ascending order.
+     */
+    public int findInOrderPosition(long value){
+        int smaller = 0;
+        boolean found = false;
+        int current = root;
+        while(current != NIL){
+            if(value(current) < value){
+                smaller += sizeOf(left(current)) + 1;
+                current = right(current);
+            } else {
+                found |= value(current) == value;
+                current = left(current);
+            }
+        }
+        return found ? smaller : smaller - 1;
+    }
+
+    /**
+     * Returns the number of values in this list.
+     *
+     * @return the number of values stored in this list.
+     */
+    public int size(){
+        return sizeOf(root);
+    }
+
+    /**
+     * Returns whether or not the list contains any values.
+     *
+     * @return {@code true} if the list has no values in it and {@code false} otherwise.
+     */
+    public boolean isEmpty(){
+        return root == NIL;
+    }
+
+    /**
+     * Removes all values from the list, leaving it empty.  The chunks are kept for reuse.
+     */
+    public void clear(){
+        setRoot(NIL);
+        setFreeList(NIL);
+        setSlotsUsed(0);
+    }
+
+    /**
+     * Returns the values in this list in ascending order.
+     *
+     * @return a new array holding the values in ascending order.
+     */
+    public long[] toArray(){
+        long[] result = new long[size()];
+        int i = 0;
+        int current = (root == NIL) ? NIL : smallestNodeInSubTree(root);
+        while(current != NIL){
+            result[i++] = value(current);
+            current = successor(current);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString(){
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Writes any changes to a file backed list through to the storage device, does nothing
+     * for a list kept in direct buffers.
+     */
+    public void force(){
+        if(channel != null){
+            ((MappedByteBuffer) header).force();
+            for(ByteBuffer chunk : chunks){
+                ((MappedByteBuffer) chunk).force();
+            }
+        }
+    }
+
+    /**
+     * Forces any changes to the file and closes it.  The list must not be used afterwards.
+     *
+     * @throws IOException if the file can not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        chunks = new ByteBuffer[0];
+        if(channel != null){
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the node at the given index.
+     *
+     * @param index the index to search for.
+     * @return the node at the specified index.
+     * @throws IllegalArgumentException in the case that the the index is not valid.
+     */
+    private int findNodeAtIndex(int index){
+        if(index < 0 || index >= size()){
+            throw new IllegalArgumentException(index + " is not valid index.");
+        }
+        int current = root;
+        while(true){
+            int smallerInSubTree = sizeOf(left(current));
+            if(index < smallerInSubTree){ //go left..
+                current = left(current);
+            } else if(index == smallerInSubTree){
+                return current;
+            } else { //go right..
+                index -= smallerInSubTree + 1;
+                current = right(current);
+            }
+        }
+    }
+
+    //Returns any node holding the given value, or NIL..
+    private int findNodeWithValue(long value){
+        int current = root;
+        while(current != NIL && value(current) != value){
+            current = (value(current) < value) ? right(current) : left(current);
+        }
+        return current;
+    }
+
+    private int smallestNodeInSubTree(int node){
+        while(left(node) != NIL){
+            node = left(node);
+        }
+        return node;
+    }
+
+    private int successor(int node){
+        if(right(node) != NIL){
+            return smallestNodeInSubTree(right(node));
+        }
+        int current = node;
+        while(parent(current) != NIL && right(parent(current)) == current){
+            current = parent(current);
+        }
+        return parent(current);
+    }
+
+    private int sizeOf(int node){
+        return (node == NIL) ? 0 : chunk(node).getInt(offset(node) + SIZE);
+    }
+
+    private int heightOf(int node){
+        return (node == NIL) ? 0 : chunk(node).getInt(offset(node) + HEIGHT);
+    }
+
+    private int balanceFactor(int node){
+        return heightOf(left(node)) - heightOf(right(node));
+    }
+
+    private void updateCachedValues(int node){
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        int left = chunk.getInt(offset + LEFT);
+        int right = chunk.getInt(offset + RIGHT);
+        chunk.putInt(offset + HEIGHT, 1 + Math.max(heightOf(left), heightOf(right)));
+        chunk.putInt(offset + SIZE, 1 + sizeOf(left) + sizeOf(right));
+    }
+
+    //Points the parent's link to oldChild (or the root) at newChild instead..
+    private void replaceChild(int parentNode, int oldChild, int newChild){
+        if(newChild != NIL){
+            setParent(newChild, parentNode);
+        }
+        if(parentNode == NIL){
+            setRoot(newChild);
+        } else if(left(parentNode) == oldChild){
+            setLeft(parentNode, newChild);
+        } else {
+            setRight(parentNode, newChild);
+        }
+    }
+
+    //AVL rebalancing starting at the given node and working up to the root..
+    private void rebalanceTree(int node){
+        while(node != NIL){
+            updateCachedValues(node);
+            int balanceFactor = balanceFactor(node);
+            if(balanceFactor > 1){ //left side higher than the right.
+                if(balanceFactor(left(node)) < 0){ //need to do a double rotation..
+                    rotateLeft(left(node));
+                }
+                node = rotateRight(node);
+            } else if(balanceFactor < -1){ //the right side is higher than the left.
+                if(balanceFactor(right(node)) > 0){ //need to do a double rotation..
+                    rotateRight(right(node));
+                }
+                node = rotateLeft(node);
+            }
+            node = parent(node);
+        }
+    }
+
+    //Rotates the right child of the given node into its place, returning that child..
+    private int rotateLeft(int node){
+        int pivot = right(node);
+        int moved = left(pivot);
+        setRight(node, moved);
+        if(moved != NIL){
+            setParent(moved, node);
+        }
+        replaceChild(parent(node), node, pivot);
+        setLeft(pivot, node);
+        setParent(node, pivot);
+        updateCachedValues(node);
+        updateCachedValues(pivot);
+        return pivot;
+    }
+
+    //Rotates the left child of the given node into its place, returning that child..
+    private int rotateRight(int node){
+        int pivot = left(node);
+        int moved = right(pivot);
+        setLeft(node, moved);
+        if(moved != NIL){
+            setParent(moved, node);
+        }
+        replaceChild(parent(node), node, pivot);
+        setRight(pivot, node);
+        setParent(node, pivot);
+        updateCachedValues(node);
+        updateCachedValues(pivot);
+        return pivot;
+    }
+
+    //Hands out a slot for a new leaf, preferring the free-list over fresh slots..
+    private int allocateNode(long value){
+        int node;
+        if(freeList != NIL){
+            node = freeList;
+            setFreeList(left(node));
+        } else {
+            if(slotsUsed == Integer.MAX_VALUE){
+                throw new IllegalStateException("OffHeapSortedLongList can not hold more than " + slotsUsed + " values.");
+            }
+            node = slotsUsed;
+            ensureChunksFor(node + 1);
+            setSlotsUsed(slotsUsed + 1);
+        }
+        ByteBuffer chunk = chunk(node);
+        int offset = offset(node);
+        chunk.putLong(offset + VALUE, value);
+        chunk.putInt(offset + LEFT, NIL);
+        chunk.putInt(offset + RIGHT, NIL);
+        chunk.putInt(offset + PARENT, NIL);
+        chunk.putInt(offset + SIZE, 1);
+        chunk.putInt(offset + HEIGHT, 1);
+        return node;
+    }
+
+    private void freeNode(int node){
+        setLeft(node, freeList);
+        setFreeList(node);
+    }
+
+    //Makes sure the arena has chunks for slots [0, slots), mapping further regions of the file if backed by one..
+    private void ensureChunksFor(int slots){
+        int required = (int) (((long) slots + CHUNK_MASK) >>> CHUNK_SHIFT);
+        if(required <= chunks.length){
+            return;
+        }
+        ByteBuffer[] grown = Arrays.copyOf(chunks, Math.max(required, chunks.length + (chunks.length >> 1)));
+        try {
+            for(int c = chunks.length; c < grown.length; c++){
+                if(channel == null){
+                    grown[c] = ByteBuffer.allocateDirect((int) CHUNK_BYTES);
+                } else {
+                    grown[c] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + c * CHUNK_BYTES, CHUNK_BYTES);
+                }
+                grown[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch(IOException e){
+            throw new IllegalStateException("Unable to map more nodes of the list.", e);
+        }
+        chunks = grown;
+    }
+
+    private void initialiseHeader(){
+        header.putInt(MAGIC_OFFSET, MAGIC);
+        header.putInt(VERSION_OFFSET, VERSION);
+        clear();
+    }
+
+    private void readHeader() throws IOException {
+        if(header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION){
+            throw new IOException("File does not hold an OffHeapSortedLongList.");
+        }
+        root = header.getInt(ROOT_OFFSET);
+        freeList = header.getInt(FREE_LIST_OFFSET);
+        slotsUsed = header.getInt(SLOTS_USED_OFFSET);
+        ensureChunksFor(slotsUsed);
+    }
+
+    //The root, free-list and slot count are cached in fields and written through to the header..
+    private void setRoot(int node){
+        root = node;
+        header.putInt(ROOT_OFFSET, node);
+    }
+
+    private void setFreeList(int node){
+        freeList = node;
+        header.putInt(FREE_LIST_OFFSET, node);
+    }
+
+    private void setSlotsUsed(int slots){
+        slotsUsed = slots;
+        header.putInt(SLOTS_USED_OFFSET, slots);
+    }
+
+    private ByteBuffer chunk(int node){
+        return chunks[node >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int node){
+        return (node & CHUNK_MASK) << NODE_SHIFT;
+    }
+
+    private long value(int node){
+        return chunk(node).getLong(offset(node) + VALUE);
+    }
+
+    private int left(int node){
+        return chunk(node).getInt(offset(node) + LEFT);
+    }
+
+    private int right(int node){
+        return chunk(node).getInt(offset(node) + RIGHT);
+    }
+
+    private int parent(int node){
+        return chunk(node).getInt(offset(node) + PARENT);
+    }
+
+    private void setValue(int node, long value){
+        chunk(node).putLong(offset(node) + VALUE, value);
+    }
+
+    private void setLeft(int node, int child){
+        chunk(node).putInt(offset(node) + LEFT, child);
+    }
+
+    private void setRight(int node, int child){
+        chunk(node).putInt(offset(node) + RIGHT, child);
+    }
+
+    private void setParent(int node, int parentNode){
+        chunk(node).putInt(offset(node) + PARENT, parentNode);
+    }
+}
@@ -5,9 +5,21 @@
 //                             were to be arranged in increasing order in an array.
 
 //  SortedList based on AVL Tree
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -15,11 +27,24 @@ import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
  
 public class SortedList<T> extends AbstractList<T> implements Serializable {
  
-  private Node root;
+  private static final long serialVersionUID = 1L;
+
+  //Header of the format used by writeTo and readFrom, followed by the number of elements..
+  private static final int MAGIC = 0x534c5354;
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+
+  //The tree is written as a count followed by the values in order, see writeObject..
+  private transient Node root;
   private final Comparator<? super T> comparator;
+
+  //Nodes created in an earlier generation may be shared with a snapshot and are copied before
+  //being altered, see #snapshot()..
+  private transient long generation;
  
     /**
      * Constructs a new, empty SortedList which sorts the elements
@@ -30,6 +55,59 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
     public SortedList(Comparator<? super T> comparator){
       this.comparator = comparator;
     }
+
+    /**
+     * Constructs a new SortedList which sorts the elements according to the given
+     * {@code Comparator} and initially holds the non-<code>null</code> elements of
+     * the given collection.
+     * <p>
+     * The tree is built bottom up without any rotations, see {@code #addAll(Collection)}.
+     *
+     * @param comparator the {@code Comparator} to sort the elements by.
+     * @param c the elements to initially store in the list.
+     */
+    public SortedList(Comparator<? super T> comparator, Collection<? extends T> c){
+      this(comparator);
+      addAll(c);
+    }
+
+    /**
+     * Returns a new {@code SortedList} holding the non-<code>null</code> elements of the
+     * given array, ordered by the given {@code Comparator}.
+     * <p>
+     * If the array is already sorted the list is built in time <i>O(n)</i>, otherwise a copy
+     * of it is sorted first.  The given array is never modified.
+     *
+     * @param comparator the {@code Comparator} to sort the elements by.
+     * @param values the elements to store, ideally already in ascending order.
+     * @return a new balanced {@code SortedList} holding the given elements.
+     */
+    public static <T> SortedList<T> bulkLoad(Comparator<? super T> comparator, T[] values){
+        SortedList<T> list = new SortedList<T>(comparator);
+        list.addAll(Arrays.asList(values));
+        return list;
+    }
+
+    /**
+     * Returns a new {@code SortedList} holding the non-<code>null</code> elements returned by
+     * the given iterator, ordered by the given {@code Comparator}.
+     * <p>
+     * If the elements arrive in ascending order the list is built in time <i>O(n)</i>,
+     * otherwise they are sorted first.
+     *
+     * @param comparator the {@code Comparator} to sort the elements by.
+     * @param values an iterator over the elements to store.
+     * @return a new balanced {@code SortedList} holding the given elements.
+     */
+    public static <T> SortedList<T> bulkLoad(Comparator<? super T> comparator, Iterator<? extends T> values){
+        List<T> buffer = new ArrayList<T>();
+        while(values.hasNext()){
+            buffer.add(values.next());
+        }
+        SortedList<T> list = new SortedList<T>(comparator);
+        list.addAll(buffer);
+        return list;
+    }
     
     /**
      * Inserts the given object into this {code SortedList} at the appropriate
@@ -47,12 +125,25 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
         boolean treeAltered = false;
         if(object != null){
             //wrap the value in a node and add it..
-            add(new Node(object)); //will ensure the modcount is increased..
+            add(createNode(object)); //will ensure the modcount is increased..
             treeAltered = true;
         }
         return treeAltered;
     }
     
+    /**
+     * Creates the {@code Node} which will hold the given value in this {@code SortedList}.
+     * <p>
+     * This method can be overridden by a subclass in order to change the definition of the {@code Node}s
+     * that this List will store, every node of the list is created through it.
+     *
+     * @param value the value the node will hold.
+     * @return a new node holding the given value.
+     */
+    protected Node createNode(T value){
+        return new Node(value);
+    }
+
     /**
      * Add the given Node to this {@code SortedList}.
      * <p>
@@ -69,7 +160,7 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
         root = toAdd;
  
       } else { //non-null root case..
-          Node current = root;
+          Node current = copyIfShared(root);
           while(current != null) { //should always break!
               int comparison = toAdd.compareTo(current);
    
@@ -78,14 +169,14 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
                       current.setLeftChild(toAdd);
                       break;
                  } else {
-                     current = current.leftChild;
+                     current = copyIfShared(current.leftChild);
                  }
               } else { //toAdd > node (equal should not be possible)
                   if(current.rightChild == null){
                       current.setRightChild(toAdd);
                       break;
                   } else {
-                      current = current.rightChild;
+                      current = copyIfShared(current.rightChild);
                   }
               }
           }
@@ -93,6 +184,238 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
         modCount++; //see AbstractList#modCount, incrementing this allows for iterators to be fail-fast..
     }
     
+    /**
+     * Adds all of the non-<code>null</code> elements in the given collection to this
+     * {@code SortedList}.
+     * <p>
+     * When the list is empty, or the collection is large compared to the list, the elements
+     * are sorted (a linear check is made first, so sorted input is not sorted again), merged
+     * with the current contents and a perfectly balanced tree is built bottom up in time
+     * <i>O(n + k)</i>, without any rotations.  Small batches are inserted one at a time,
+     * which works in time <i>O(k log(n + k))</i>.
+     *
+     * @param c the elements to add.
+     * @return {@code true} if the list changed as a result of the call.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c){
+        Object[] batch = c.toArray();
+        int batchSize = 0;
+        for(Object value : batch){ //drop nulls, just like add(T)..
+            if(value != null){
+                batch[batchSize++] = value;
+            }
+        }
+        if(batchSize == 0){
+            return false;
+        }
+
+        int currentSize = size();
+        if(!isLargeBatch(batchSize, currentSize)){
+            for(int i = 0; i < batchSize; i++){
+                @SuppressWarnings("unchecked")
+                T value = (T) batch[i];
+                add(createNode(value));
+            }
+            return true;
+        }
+
+        sortIfRequired(batch, batchSize);
+        Object[] values = batch;
+        if(currentSize > 0){
+            values = mergeWithContents(batch, batchSize);
+        }
+        root = buildBalancedTree(values, 0, currentSize + batchSize, null);
+        modCount++;
+        return true;
+    }
+
+    //Inserting k elements one by one costs about k*log(n + k) whereas a rebuild costs n + k..
+    private static boolean isLargeBatch(int batchSize, int currentSize){
+        int total = currentSize + batchSize;
+        int log = 32 - Integer.numberOfLeadingZeros(total);
+        return (long) batchSize * log >= total;
+    }
+
+    //Sorts values[0, count) unless they are already in order..
+    @SuppressWarnings("unchecked")
+    private void sortIfRequired(Object[] values, int count){
+        for(int i = 1; i < count; i++){
+            if(comparator.compare((T) values[i - 1], (T) values[i]) > 0){
+                Arrays.sort((T[]) values, 0, count, comparator);
+                return;
+            }
+        }
+    }
+
+    //Merges the current contents of the list with the sorted batch[0, batchSize), existing elements
+    //come first amongst equal ones, just as add(T) places new elements after equal ones..
+    @SuppressWarnings("unchecked")
+    private Object[] mergeWithContents(Object[] batch, int batchSize){
+        Object[] merged = new Object[size() + batchSize];
+        int i = 0, b = 0;
+        for(T value : this){
+            while(b < batchSize && comparator.compare((T) batch[b], value) < 0){
+                merged[i++] = batch[b++];
+            }
+            merged[i++] = value;
+        }
+        while(b < batchSize){
+            merged[i++] = batch[b++];
+        }
+        return merged;
+    }
+
+    //Builds a perfectly balanced tree from the sorted values[from, to) and returns its root..
+    private Node buildBalancedTree(Object[] values, int from, int to, Node parent){
+        if(from >= to){
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        @SuppressWarnings("unchecked")
+        Node node = createNode((T) values[mid]);
+        node.parent = parent;
+        node.leftChild = buildBalancedTree(values, from, mid, node);
+        node.rightChild = buildBalancedTree(values, mid + 1, to, node);
+        node.updateCachedValuesOfNode();
+        return node;
+    }
+
+    /**
+     * Writes the elements of this {@code SortedList} to the given channel in ascending order, each
+     * encoded by the given {@code ElementCodec}, after a header holding the number of elements.
+     * <p>
+     * The elements are encoded straight into a direct buffer which is handed to the channel
+     * whenever it fills up, so no intermediate byte arrays are involved.
+     *
+     * @param channel the channel to write to, which is not closed.
+     * @param codec the codec to encode the elements with.
+     * @throws IOException if the channel can not be written to.
+     */
+    public void writeTo(WritableByteChannel channel, ElementCodec<? super T> codec) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+        buffer.putInt(MAGIC).putInt(size());
+        for(T value : this){
+            while(true){
+                int start = buffer.position();
+                try {
+                    codec.encode(value, buffer);
+                    break;
+                } catch(BufferOverflowException e){
+                    buffer.position(start);
+                    if(start == 0){ //a single element larger than the whole buffer..
+                        buffer = ByteBuffer.allocateDirect(2 * buffer.capacity());
+                    } else {
+                        drain(channel, buffer);
+                    }
+                }
+            }
+        }
+        drain(channel, buffer);
+    }
+
+    /**
+     * Replaces the contents of this {@code SortedList} with the elements read from the given
+     * channel, in the format written by {@code #writeTo(WritableByteChannel, ElementCodec)}.
+     * <p>
+     * The elements are decoded straight from a direct buffer refilled from the channel and the tree
+     * is built bottom up in time <i>O(n)</i>, see {@code #addAll(Collection)}.  Elements which turn
+     * out not to be in order, for example because the comparator changed, are sorted first.
+     *
+     * @param channel the channel to read from, which is not closed.
+     * @param codec the codec to decode the elements with.
+     * @throws IOException if the channel can not be read or does not hold a {@code SortedList}.
+     */
+    public void readFrom(ReadableByteChannel channel, ElementCodec<? extends T> codec) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+        buffer.flip(); //start out empty..
+        while(buffer.remaining() < 8){
+            buffer = refill(channel, buffer);
+        }
+        int count = buffer.getInt(buffer.position() + 4);
+        if(buffer.getInt() != MAGIC || count < 0){
+            throw new IOException("Channel does not hold a SortedList.");
+        }
+        buffer.getInt();
+
+        Object[] values = new Object[count];
+        for(int i = 0; i < count; i++){
+            while(true){
+                int start = buffer.position();
+                try {
+                    values[i] = codec.decode(buffer);
+                    break;
+                } catch(BufferUnderflowException e){
+                    buffer.position(start);
+                    buffer = refill(channel, buffer);
+                }
+            }
+            if(values[i] == null){
+                throw new IOException("Codec decoded a null element.");
+            }
+        }
+        sortIfRequired(values, count);
+        root = buildBalancedTree(values, 0, count, null);
+        modCount++;
+    }
+
+    //Hands the contents of the buffer over to the channel and clears it..
+    private static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //Reads more bytes after those remaining in the buffer, growing it if it is already full,
+    //and returns the buffer to carry on with..
+    private static ByteBuffer refill(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        if(buffer.position() == 0 && buffer.limit() == buffer.capacity()){ //a single element larger than the whole buffer..
+            ByteBuffer larger = ByteBuffer.allocateDirect(2 * buffer.capacity());
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while(read == 0);
+        buffer.flip();
+        if(read < 0){
+            throw new EOFException("Channel ended part way through a SortedList.");
+        }
+        return buffer;
+    }
+
+    //Writes the number of elements followed by the elements in order, rather than the node graph..
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for(T value : this){
+            out.writeObject(value);
+        }
+    }
+
+    //Reads the elements written by writeObject and builds the tree straight away, so that any object
+    //read after this list, such as a HashSet holding it, sees its elements when it hashes it.  The
+    //fields of a subclass are not read yet while its nodes are created here, so a subclass whose
+    //nodes cache values depending on its own fields has to recompute them in its own readObject..
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        if(count < 0){
+            throw new InvalidObjectException(count + " is not a valid number of elements.");
+        }
+        Object[] values = new Object[count];
+        for(int i = 0; i < count; i++){
+            values[i] = in.readObject();
+        }
+        sortIfRequired(values, values.length);
+        root = buildBalancedTree(values, 0, values.length, null);
+    }
+
     /**
      * Returns the number of elements in this {@code SortedList}.
      * 
@@ -143,7 +466,12 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
      * @return the first node in this list with the given value.
      */
     protected Node findFirstNodeWithValue(T value){
-        Node current = root;
+        return findFirstNodeWithValue(root, value);
+    }
+
+    //Binary search for the given value in the tree rooted at the given node, only following child links..
+    private Node findFirstNodeWithValue(Node subTreeRoot, T value){
+        Node current = subTreeRoot;
         while(current != null){
           //use the comparator on the values, rather than nodes..
           int comparison = comparator.compare(current.value, value);
@@ -201,6 +529,7 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
      * @param toRemove the {@code Node}, which must be a {@code Node} in this {@code SortedList}.
      */
     protected void remove(Node toRemove){
+        toRemove = copyPathIfShared(toRemove);
         if(toRemove.isLeaf()){
             Node parent = toRemove.parent;
             if(parent == null){ //case where there is only one element in the list..
@@ -209,16 +538,16 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
                 toRemove.detachFromParentIfLeaf();
             }
         } else if(toRemove.hasTwoChildren()){ //interesting case..
-            Node successor = toRemove.successor(); //will not be a non-null leaf or has one child!!
+            Node successor = copyPathIfShared(toRemove.successor()); //will not be a non-null leaf or has one child!!
  
             //switch the values of the nodes over, then delete the switched node..
             toRemove.switchValuesForThoseIn(successor);
             remove(successor); //will be one of the simpler cases.
  
         } else if(toRemove.leftChild != null){
-            toRemove.leftChild.contractParent();
+            copyIfShared(toRemove.leftChild).contractParent();
         } else { //leftChild is null but right isn't..
-            toRemove.rightChild.contractParent();
+            copyIfShared(toRemove.rightChild).contractParent();
         }
         modCount++; //see AbstractList#modCount, incrementing this allows for iterators to be fail-fast..
     }
@@ -250,7 +579,12 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
       if(index < 0 || index >= size()){ 
             throw new IllegalArgumentException(index + " is not valid index.");
         }
-      Node current = root;
+      return findNodeAtIndex(root, index);
+    }
+
+    //Finds the node at the given index of the non-empty tree rooted at the given node, only following child links..
+    private Node findNodeAtIndex(Node subTreeRoot, int index){
+      Node current = subTreeRoot;
         //the the number of smaller elements of the current node as we traverse the tree..
         int totalSmallerElements = (current.leftChild == null) ? 0 : current.leftChild.sizeOfSubTree();
         while(current!= null){  //should always break, due to constraint above..
@@ -273,37 +607,47 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
     /**
      * Returns the largest element strictly less than given element.
      *
-     * @param element to search for.
-     * @return largest element strictly less than given element.
-     * 
-     * @throws NullPointerException in the case there is no element less than given element.
-     */
-    public T lower(T value) {
-        Node p = root;
-        while (p != null) {
-            int cmp = comparator.compare(value, p.value);
-            if (cmp > 0) {
-                if (p.rightChild != null)
-                    p = p.rightChild;
-                else
-                    return p.value;
-            } else {
-                if (p.leftChild != null) {
-                    p = p.leftChild;
-                } else {
-                    Node parent = p.parent;
-                    Node ch = p;
-                    while (parent != null && ch == parent.leftChild) {
-                        ch = parent;
-                    parent = parent.parent;
-                    }
-                    return parent.value;
-                }
-            }
-        }
-        return null;
+     * @param value the element to search for.
+     * @return largest element strictly less than given element, or <code>null</code> if there is none.
+     */
+    public T lower(T value){
+        return valueOf(lowerNode(root, value, false));
     }
- 
+
+    /**
+     * Returns the largest element less than or equal to given element.
+     *
+     * @param value the element to search for.
+     * @return largest element less than or equal to given element, or <code>null</code> if there is none.
+     */
+    public T floor(T value){
+        return valueOf(lowerNode(root, value, true));
+    }
+
+    /**
+     * Returns the smallest element greater than or equal to given element.
+     *
+     * @param value the element to search for.
+     * @return smallest element greater than or equal to given element, or <code>null</code> if there is none.
+     */
+    public T ceiling(T value){
+        return valueOf(higherNode(root, value, true));
+    }
+
+    /**
+     * Returns the smallest element strictly greater than given element.
+     *
+     * @param value the element to search for.
+     * @return smallest element strictly greater than given element, or <code>null</code> if there is none.
+     */
+    public T higher(T value){
+        return valueOf(higherNode(root, value, false));
+    }
+
+    private T valueOf(Node node){
+        return (node == null) ? null : node.value;
+    }
+
     /**
      * Returns the position of the element in Inorder traversal(i.e. ascending order) of the Balanced BST.
      *
@@ -311,7 +655,12 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
      * @return position of the element in Inorder traversal.
      */
     public int findInOrderPosition(T value){
-        Node current = root;
+        return findInOrderPosition(root, value);
+    }
+
+    //Rank query on the tree rooted at the given node, only following child links..
+    private int findInOrderPosition(Node subTreeRoot, T value){
+        Node current = subTreeRoot;
         int pos = 0;
  
         while(current != null){
@@ -339,6 +688,172 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
         return pos - 1;
     }
  
+    //Finds the node holding the largest value less than (or equal to, if inclusive) the given one in the
+    //tree rooted at the given node, only following child links, returning null if there is no such node..
+    private Node lowerNode(Node subTreeRoot, T value, boolean inclusive){
+        Node candidate = null;
+        Node current = subTreeRoot;
+        while(current != null){
+            int comparison = comparator.compare(value, current.value);
+            if(comparison > 0 || (inclusive && comparison == 0)){
+                candidate = current;
+                current = current.rightChild;
+            } else {
+                current = current.leftChild;
+            }
+        }
+        return candidate;
+    }
+
+    //Finds the node holding the smallest value greater than (or equal to, if inclusive) the given one,
+    //returning null if there is no such node..
+    private Node higherNode(Node subTreeRoot, T value, boolean inclusive){
+        Node candidate = null;
+        Node current = subTreeRoot;
+        while(current != null){
+            int comparison = comparator.compare(value, current.value);
+            if(comparison < 0 || (inclusive && comparison == 0)){
+                candidate = current;
+                current = current.leftChild;
+            } else {
+                current = current.rightChild;
+            }
+        }
+        return candidate;
+    }
+
+    //Returns the number of elements less than (or equal to, if inclusive) the given one, in time O(log(n))..
+    private int countBelow(T value, boolean inclusive){
+        int count = 0;
+        Node current = root;
+        while(current != null){
+            int comparison = comparator.compare(value, current.value);
+            if(comparison > 0 || (inclusive && comparison == 0)){
+                count += 1 + ((current.leftChild == null) ? 0 : current.leftChild.sizeOfSubTree());
+                current = current.rightChild;
+            } else {
+                current = current.leftChild;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns an immutable view of the current contents of this {@code SortedList}, in
+     * constant time.
+     * <p>
+     * The snapshot shares its nodes with this list.  Once a snapshot has been taken, this list
+     * copies any node it is about to alter, along with the path from the root down to it, so
+     * each later update allocates at most <i>O(log(n))</i> extra nodes and the snapshot never
+     * sees the change.  Rank queries on the snapshot cost the same as on the list itself.
+     * <p>
+     * The snapshot may be read from any thread, but taking it must be ordered with the
+     * updates to this list, as for any other method of this class.
+     *
+     * @return an immutable view of the current contents of this list.
+     */
+    public Snapshot snapshot(){
+        generation++;
+        return new Snapshot(root);
+    }
+
+    /**
+     * Returns a view of the elements strictly less than (or equal to, if {@code inclusive})
+     * the given element.  See {@code #subList(Object, boolean, Object, boolean)}.
+     *
+     * @param toElement the upper bound of the view.
+     * @param inclusive whether elements equal to the bound are part of the view.
+     * @return a view of the elements below the given bound.
+     */
+    public List<T> headList(T toElement, boolean inclusive){
+        return new RangeView(null, false, toElement, inclusive);
+    }
+
+    /**
+     * Returns a view of the elements strictly greater than (or equal to, if {@code inclusive})
+     * the given element.  See {@code #subList(Object, boolean, Object, boolean)}.
+     *
+     * @param fromElement the lower bound of the view.
+     * @param inclusive whether elements equal to the bound are part of the view.
+     * @return a view of the elements above the given bound.
+     */
+    public List<T> tailList(T fromElement, boolean inclusive){
+        return new RangeView(fromElement, inclusive, null, false);
+    }
+
+    /**
+     * Returns a view of the elements between the given bounds, backed by this list so that
+     * later changes to the list show through it.
+     * <p>
+     * The size of the view is worked out from the subtree sizes in time <i>O(log(n))</i>, and its
+     * iterator follows successor links from the first element in range without copying anything.
+     * Elements can be removed through the view's iterator, but not added to it.
+     *
+     * @param fromElement the lower bound of the view.
+     * @param fromInclusive whether elements equal to the lower bound are part of the view.
+     * @param toElement the upper bound of the view.
+     * @param toInclusive whether elements equal to the upper bound are part of the view.
+     * @return a view of the elements between the given bounds.
+     * @throws IllegalArgumentException in the case that fromElement is greater than toElement.
+     */
+    public List<T> subList(T fromElement, boolean fromInclusive, T toElement, boolean toInclusive){
+        if(comparator.compare(fromElement, toElement) > 0){
+            throw new IllegalArgumentException("fromElement is greater than toElement.");
+        }
+        return new RangeView(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns a view of the elements at indices [fromIndex, toIndex), backed by this list.
+     * <p>
+     * As for {@code AbstractList#subList(int, int)}, the view is invalidated by structural changes
+     * made to this list other than through the view.  Its iterator follows successor links rather
+     * than calling {@code #get(int)} for each index.
+     *
+     * @param fromIndex the index of the first element of the view.
+     * @param toIndex one past the index of the last element of the view.
+     * @return a view of the elements at the given indices.
+     * @throws IndexOutOfBoundsException in the case that the indices are not valid.
+     */
+    @Override
+    public List<T> subList(int fromIndex, int toIndex){
+        if(fromIndex < 0 || toIndex > size() || fromIndex > toIndex){
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size());
+        }
+        return new IndexRangeView(fromIndex, toIndex);
+    }
+
+    /**
+     * Returns an iterator over the elements in this {@code SortedList} in ascending order.
+     * <p>
+     * Unlike the index based iterator inherited from {@code AbstractList}, which calls
+     * {@code #get(int)} for every element, this iterator walks the tree using
+     * {@code Node#successor()}, so a full traversal works in time <i>O(n)</i> rather than
+     * <i>O(n log(n))</i>.  The iterator is fail-fast and supports {@code Iterator#remove()}.
+     *
+     * @return an iterator over the elements in this list in ascending order.
+     */
+    @Override
+    public Iterator<T> iterator(){
+        return new Itr(0, size());
+    }
+
+    /**
+     * Returns a {@code Spliterator} over the elements in this {@code SortedList}.
+     * <p>
+     * The spliterator reports {@code ORDERED}, {@code SORTED}, {@code SIZED}, {@code SUBSIZED}
+     * and {@code NONNULL}.  It splits its range in half by index, locating the split point
+     * through the cached subtree sizes in time <i>O(log(n))</i>, so that parallel streams
+     * can divide the work evenly.
+     *
+     * @return a {@code Spliterator} over the elements in this list.
+     */
+    @Override
+    public Spliterator<T> spliterator(){
+        Node first = (root == null) ? null : root.smallestNodeInSubTree();
+        return new NodeSpliterator(first, 0, size(), modCount);
+    }
+
     /**
      * Returns whether or not the list contains any elements.
      * 
@@ -398,14 +913,17 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
            int balanceFactor = current.getBalanceFactor();
            
            if(balanceFactor == -2){ //the right side is higher than the left.
-               if(current.rightChild.getBalanceFactor() == 1){ //need to do a double rotation..
-                   current.rightChild.leftChild.rightRotateAsPivot();
+               //after a removal the higher side may not be on the altered path, so may still be shared..
+               Node rightChild = copyIfShared(current.rightChild);
+               if(rightChild.getBalanceFactor() == 1){ //need to do a double rotation..
+                   copyIfShared(rightChild.leftChild).rightRotateAsPivot();
                }
                current.rightChild.leftRotateAsPivot();
     
            } else if(balanceFactor == 2){ //left side higher than the right.
-               if(current.leftChild.getBalanceFactor() == -1){ //need to do a double rotation..
-                   current.leftChild.rightChild.leftRotateAsPivot();
+               Node leftChild = copyIfShared(current.leftChild);
+               if(leftChild.getBalanceFactor() == -1){ //need to do a double rotation..
+                   copyIfShared(leftChild.rightChild).leftRotateAsPivot();
                }
                current.leftChild.rightRotateAsPivot();
            }
@@ -420,6 +938,406 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
        }
     }
    
+   //Returns the given node if it was created in the current generation, otherwise replaces it in the
+   //tree by a copy, which is returned.  The parent of the node must already be owned, that is
+   //not shared with any snapshot; snapshots never read parent links, so children can be re-pointed..
+   private Node copyIfShared(Node node){
+       if(node.generation == generation){
+           return node;
+       }
+       Node copy = node.copy();
+       if(copy.leftChild != null){
+           copy.leftChild.parent = copy;
+       }
+       if(copy.rightChild != null){
+           copy.rightChild.parent = copy;
+       }
+       if(copy.parent == null){
+           root = copy;
+       } else if(copy.parent.leftChild == node){
+           copy.parent.leftChild = copy;
+       } else {
+           copy.parent.rightChild = copy;
+       }
+       return copy;
+   }
+
+   //Makes sure the given node and all its ancestors are owned, copying the shared ones from the top
+   //down, and returns the owned version of the node.  Ancestors of an owned node are always owned..
+   private Node copyPathIfShared(Node node){
+       if(node.generation == generation){
+           return node;
+       }
+       if(node.parent != null){
+           copyPathIfShared(node.parent); //re-points node.parent at the copy..
+       }
+       return copyIfShared(node);
+   }
+
+   /**
+    * Immutable view of the contents of a {@code SortedList} at the time {@code SortedList#snapshot()}
+    * was called.  Queries only follow child links and so are unaffected by later changes to the list.
+    */
+   public class Snapshot extends AbstractList<T> {
+
+       private final Node snapshotRoot;
+       private final int size;
+
+       private Snapshot(Node snapshotRoot){
+           this.snapshotRoot = snapshotRoot;
+           this.size = (snapshotRoot == null) ? 0 : snapshotRoot.sizeOfSubTree();
+       }
+
+       @Override
+       public int size(){
+           return size;
+       }
+
+       /**
+        * Returns the element at the given index, see {@code SortedList#get(int)}.
+        *
+        * @param index the index of the element to get.
+        * @return the element at the given index in this snapshot.
+        * @throws IllegalArgumentException in the case that the index is not a valid index.
+        */
+       @Override
+       public T get(int index){
+           if(index < 0 || index >= size){
+               throw new IllegalArgumentException(index + " is not valid index.");
+           }
+           return findNodeAtIndex(snapshotRoot, index).value;
+       }
+
+       /**
+        * Returns the position of the element in ascending order, see {@code SortedList#findInOrderPosition(Object)}.
+        *
+        * @param value the element to search for.
+        * @return position of the element in ascending order.
+        */
+       public int findInOrderPosition(T value){
+           return SortedList.this.findInOrderPosition(snapshotRoot, value);
+       }
+
+       /**
+        * Returns the largest element strictly less than given element.
+        *
+        * @param value the element to search for.
+        * @return largest element strictly less than given element, or <code>null</code> if there is none.
+        */
+       public T lower(T value){
+           return valueOf(lowerNode(snapshotRoot, value, false));
+       }
+
+       @Override
+       @SuppressWarnings("unchecked")
+       public boolean contains(Object obj){
+           return obj != null && findFirstNodeWithValue(snapshotRoot, (T) obj) != null;
+       }
+
+       /**
+        * Returns an iterator over the elements of this snapshot in ascending order, which
+        * keeps the path to the current node on a stack rather than following parent links.
+        *
+        * @return an iterator over the elements of this snapshot.
+        */
+       @Override
+       public Iterator<T> iterator(){
+           return new Iterator<T>(){
+               private final List<Node> stack = new ArrayList<Node>();
+               {
+                   pushLeftPath(snapshotRoot);
+               }
+
+               @Override
+               public boolean hasNext(){
+                   return !stack.isEmpty();
+               }
+
+               @Override
+               public T next(){
+                   if(stack.isEmpty()){
+                       throw new NoSuchElementException();
+                   }
+                   Node next = stack.remove(stack.size() - 1);
+                   pushLeftPath(next.rightChild);
+                   return next.value;
+               }
+
+               private void pushLeftPath(Node node){
+                   for(; node != null; node = node.leftChild){
+                       stack.add(node);
+                   }
+               }
+           };
+       }
+   }
+
+   //Read and remove only view of the elements within the given bounds, where a null bound is open..
+   private class RangeView extends AbstractList<T> {
+
+       private final T lowerBound;
+       private final boolean lowerInclusive;
+       private final T upperBound;
+       private final boolean upperInclusive;
+
+       private RangeView(T lowerBound, boolean lowerInclusive, T upperBound, boolean upperInclusive){
+           this.lowerBound = lowerBound;
+           this.lowerInclusive = lowerInclusive;
+           this.upperBound = upperBound;
+           this.upperInclusive = upperInclusive;
+       }
+
+       private int fromIndex(){
+           return (lowerBound == null) ? 0 : countBelow(lowerBound, !lowerInclusive);
+       }
+
+       private int toIndex(){
+           return (upperBound == null) ? SortedList.this.size() : countBelow(upperBound, upperInclusive);
+       }
+
+       private boolean inRange(T value){
+           if(lowerBound != null){
+               int comparison = comparator.compare(value, lowerBound);
+               if(comparison < 0 || (comparison == 0 && !lowerInclusive)){
+                   return false;
+               }
+           }
+           if(upperBound != null){
+               int comparison = comparator.compare(value, upperBound);
+               if(comparison > 0 || (comparison == 0 && !upperInclusive)){
+                   return false;
+               }
+           }
+           return true;
+       }
+
+       @Override
+       public int size(){
+           return Math.max(0, toIndex() - fromIndex());
+       }
+
+       @Override
+       public T get(int index){
+           if(index < 0 || index >= size()){
+               throw new IllegalArgumentException(index + " is not valid index.");
+           }
+           return findNodeAtIndex(fromIndex() + index).value;
+       }
+
+       @Override
+       @SuppressWarnings("unchecked")
+       public boolean contains(Object obj){
+           return obj != null && inRange((T) obj) && SortedList.this.contains(obj);
+       }
+
+       @Override
+       @SuppressWarnings("unchecked")
+       public boolean remove(Object obj){
+           return obj != null && inRange((T) obj) && SortedList.this.remove(obj);
+       }
+
+       @Override
+       public Iterator<T> iterator(){
+           int fromIndex = fromIndex();
+           return new Itr(fromIndex, Math.max(fromIndex, toIndex()));
+       }
+   }
+
+   //View of the elements at a fixed range of indices, invalidated by changes made other than through it..
+   private class IndexRangeView extends AbstractList<T> {
+
+       private final int fromIndex;
+       private int toIndex;
+       private int expectedModCount = SortedList.this.modCount; //this view has a modCount of its own..
+
+       private IndexRangeView(int fromIndex, int toIndex){
+           this.fromIndex = fromIndex;
+           this.toIndex = toIndex;
+       }
+
+       @Override
+       public int size(){
+           checkForComodification();
+           return toIndex - fromIndex;
+       }
+
+       @Override
+       public T get(int index){
+           if(index < 0 || index >= size()){
+               throw new IllegalArgumentException(index + " is not valid index.");
+           }
+           return findNodeAtIndex(fromIndex + index).value;
+       }
+
+       @Override
+       public Iterator<T> iterator(){
+           checkForComodification();
+           final Itr itr = new Itr(fromIndex, toIndex);
+           return new Iterator<T>(){
+               @Override
+               public boolean hasNext(){
+                   return itr.hasNext();
+               }
+
+               @Override
+               public T next(){
+                   return itr.next();
+               }
+
+               @Override
+               public void remove(){
+                   itr.remove();
+                   toIndex--;
+                   expectedModCount = SortedList.this.modCount;
+               }
+           };
+       }
+
+       private void checkForComodification(){
+           if(SortedList.this.modCount != expectedModCount){
+               throw new ConcurrentModificationException();
+           }
+       }
+   }
+
+   //In-order iterator over the indices [fromIndex, toIndex) which follows successor links, rather than
+   //calling get(i) for each index..
+   private class Itr implements Iterator<T> {
+
+       private Node next;
+       private Node lastReturned;
+       private int nextIndex;
+       private int endIndex;
+       private int expectedModCount = modCount;
+
+       private Itr(int fromIndex, int toIndex){
+           next = (fromIndex < toIndex) ? findNodeAtIndex(fromIndex) : null;
+           nextIndex = fromIndex;
+           endIndex = toIndex;
+       }
+
+       @Override
+       public boolean hasNext(){
+           return nextIndex < endIndex;
+       }
+
+       @Override
+       public T next(){
+           checkForComodification();
+           if(nextIndex >= endIndex){
+               throw new NoSuchElementException();
+           }
+           lastReturned = next;
+           next = next.successor();
+           nextIndex++;
+           return lastReturned.value;
+       }
+
+       @Override
+       public void remove(){
+           if(lastReturned == null){
+               throw new IllegalStateException();
+           }
+           checkForComodification();
+           SortedList.this.remove(lastReturned);
+           lastReturned = null;
+           nextIndex--;
+           endIndex--;
+           //removing a node can move values between nodes, so look the next node up again..
+           next = (nextIndex < endIndex) ? findNodeAtIndex(nextIndex) : null;
+           expectedModCount = modCount;
+       }
+
+       private void checkForComodification(){
+           if(modCount != expectedModCount){
+               throw new ConcurrentModificationException();
+           }
+       }
+   }
+
+   //Spliterator over the index range [index, fence), splitting in half using the subtree sizes..
+   private class NodeSpliterator implements Spliterator<T> {
+
+       private Node current; //the next node to visit, null once the whole list has been visited
+       private int index; //the index of current
+       private final int fence; //one past the last index to visit
+       private final int expectedModCount;
+
+       private NodeSpliterator(Node current, int index, int fence, int expectedModCount){
+           this.current = current;
+           this.index = index;
+           this.fence = fence;
+           this.expectedModCount = expectedModCount;
+       }
+
+       @Override
+       public boolean tryAdvance(Consumer<? super T> action){
+           if(action == null){
+               throw new NullPointerException();
+           }
+           if(index >= fence){
+               return false;
+           }
+           T value = current.value;
+           current = current.successor();
+           index++;
+           action.accept(value);
+           checkForComodification();
+           return true;
+       }
+
+       @Override
+       public void forEachRemaining(Consumer<? super T> action){
+           if(action == null){
+               throw new NullPointerException();
+           }
+           Node node = current;
+           for(int i = index; i < fence; i++){
+               action.accept(node.value);
+               node = node.successor();
+           }
+           current = node;
+           index = fence;
+           checkForComodification();
+       }
+
+       @Override
+       public Spliterator<T> trySplit(){
+           int mid = (index + fence) >>> 1;
+           if(mid <= index){ //nothing left to split off..
+               return null;
+           }
+           checkForComodification();
+           Node midNode = findNodeAtIndex(mid);
+           Spliterator<T> prefix = new NodeSpliterator(current, index, mid, expectedModCount);
+           current = midNode;
+           index = mid;
+           return prefix;
+       }
+
+       @Override
+       public long estimateSize(){
+           return fence - index;
+       }
+
+       @Override
+       public int characteristics(){
+           return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.SIZED
+               | Spliterator.SUBSIZED | Spliterator.NONNULL;
+       }
+
+       @Override
+       public Comparator<? super T> getComparator(){
+           return comparator;
+       }
+
+       private void checkForComodification(){
+           if(modCount != expectedModCount){
+               throw new ConcurrentModificationException();
+           }
+       }
+   }
+
    /**
     * Inner class used to represent positions in the tree. Each node stores a list of equal values,
     * is aware of their children and parent nodes, the height of the subtree rooted at that point and
@@ -438,6 +1356,9 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
        //The "cached" values used to speed up methods..
        private int height;
        private int numChildren; 
+
+       //The generation of the list this node was created in, see SortedList#snapshot()..
+       private final long generation = SortedList.this.generation;
        
        /**
         * Constructs a new Node which initially just stores the given value.
@@ -447,6 +1368,32 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
        protected Node(T t){
            this.value = t;
        }
+
+       /**
+        * Constructs a new Node which is a copy of the given one, it holds the same value and has the
+        * same parent, children and cached values but belongs to the current generation of the list.
+        *
+        * @param original the node to copy.
+        */
+       protected Node(Node original){
+           this.value = original.value;
+           this.leftChild = original.leftChild;
+           this.rightChild = original.rightChild;
+           this.parent = original.parent;
+           this.height = original.height;
+           this.numChildren = original.numChildren;
+       }
+
+       /**
+        * Returns a copy of this {@code Node}, used when a node which is shared with a snapshot of
+        * the list has to be altered.  Sub-classes storing additional cached values should override
+        * this method to copy them too.
+        *
+        * @return a copy of this node, see {@code #Node(Node)}.
+        */
+       protected Node copy(){
+           return new Node(this);
+       }
  
        /**
         * Returns whether or not this {@code Node} has two children.
@@ -745,29 +1692,35 @@ public class SortedList<T> extends AbstractList<T> implements Serializable {
         protected final void updateCachedValues(){
             Node current = this;
             while(current != null){
-                if(current.isLeaf()){
-                    current.height = 0;
-                    current.numChildren = 0;
-                    
-                } else {
-                    //deal with the height..
-                    int leftTreeHeight = (current.leftChild == null) ? 0 : current.leftChild.height;
-                    int rightTreeHeight = (current.rightChild == null) ? 0 : current.rightChild.height;
-                    current.height = 1 + Math.max(leftTreeHeight, rightTreeHeight);
-                    
-                    //deal with the number of children..
-                    int leftTreeSize = (current.leftChild == null) ? 0 : current.leftChild.sizeOfSubTree();
-                    int rightTreeSize = (current.rightChild == null) ? 0 : current.rightChild.sizeOfSubTree();                   
-                    current.numChildren = leftTreeSize + rightTreeSize;
-                }
-                
-                //update any additional cached values set if required..
-                current.updateAdditionalCachedValues();
+                current.updateCachedValuesOfNode();
                 
                //propagate up the tree.. 
                current = current.parent;
             }
         }
+
+        //Updates the height, number of children and any additional cached values of just this node,
+        //assuming that those of its children are already correct..
+        private void updateCachedValuesOfNode(){
+            if(isLeaf()){
+                height = 0;
+                numChildren = 0;
+                
+            } else {
+                //deal with the height..
+                int leftTreeHeight = (leftChild == null) ? 0 : leftChild.height;
+                int rightTreeHeight = (rightChild == null) ? 0 : rightChild.height;
+                height = 1 + Math.max(leftTreeHeight, rightTreeHeight);
+                
+                //deal with the number of children..
+                int leftTreeSize = (leftChild == null) ? 0 : leftChild.sizeOfSubTree();
+                int rightTreeSize = (rightChild == null) ? 0 : rightChild.sizeOfSubTree();                   
+                numChildren = leftTreeSize + rightTreeSize;
+            }
+            
+            //update any additional cached values set if required..
+            updateAdditionalCachedValues();
+        }
         
         /**
          * Called when a node is inserted or removed from the tree and provides a hook for
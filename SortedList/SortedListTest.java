@@ -14,7 +14,7 @@ class SortedListNatural<T extends Comparable<? super T>> extends SortedList<T> {
 }
 
 public class SortedListTest {
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException, ClassNotFoundException {
     BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
       SortedListNatural<Integer> list = new SortedListNatural<Integer>();
 
@@ -32,12 +32,108 @@ public class SortedListTest {
       System.out.println("Position of 7 is :" + list.findInOrderPosition(7));  //  Prints 3
       System.out.println("Position of 9 is :" + list.findInOrderPosition(9));  //  Prints 4
 
+      //  Iterate in ascending order, both directly and through a (parallel) stream
+      for(int value : list)
+        System.out.print(value + " ");  //  Prints 1 3 5 7 9
+      System.out.println();
+      System.out.println("Sum of all elements is :" + list.parallelStream().mapToInt(Integer::intValue).sum());  //  Prints 25
+
+      //  Bulk load a balanced list from a batch of elements, sorting them first if required
+      SortedList<Integer> loaded = SortedList.bulkLoad(Comparator.<Integer>naturalOrder(), new Integer[]{ 8, 2, 6, 4 });
+      System.out.println("Bulk loaded list is :" + loaded);  //  Prints [2, 4, 6, 8]
+
+      //  Take an immutable snapshot, later changes to the list are not visible through it
+      SortedList<Integer>.Snapshot snapshot = list.snapshot();
+      list.add(11);
+      System.out.println("Snapshot size is :" + snapshot.size() + ", list size is :" + list.size());  //  Prints 5 and 6
+      list.remove((Integer) 11);
+
+      //  Keep a sum of every subtree, so the sum of any range of values takes O(log(n))
+      AugmentedSortedList<Integer, Long> sums = new AugmentedSortedList<Integer, Long>(
+          Comparator.<Integer>naturalOrder(), AugmentedSortedList.<Integer>sum(Integer::longValue));
+      sums.addAll(list);
+      System.out.println("Sum of elements in [3, 7] is :" + sums.rangeAggregate(3, 7));  //  Prints 15
+
+      //  Serialize the augmented list along with its monoid, the sums are rebuilt as it is read back
+      ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+        objectOut.writeObject(sums);
+      }
+      try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+        @SuppressWarnings("unchecked")
+        AugmentedSortedList<Integer, Long> sumsCopy = (AugmentedSortedList<Integer, Long>) objectIn.readObject();
+        System.out.println("Sum of elements in [3, 7] read back is :" + sumsCopy.rangeAggregate(3, 7));  //  Prints 15
+      }
+
+      //  A list read back inside a set is whole by the time the set hashes it, so the set still finds it
+      Set<SortedList<Integer>> sets = new HashSet<SortedList<Integer>>();
+      sets.add(new SortedList<Integer>(Comparator.<Integer>naturalOrder(), Arrays.asList(1, 3)));
+      serialized.reset();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+        objectOut.writeObject(sets);
+      }
+      try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+        @SuppressWarnings("unchecked")
+        Set<SortedList<Integer>> setsCopy = (Set<SortedList<Integer>>) objectIn.readObject();
+        System.out.println("Set read back contains its list " + setsCopy.iterator().next() + " :"
+            + setsCopy.contains(setsCopy.iterator().next()));  //  Prints [1, 3] and true
+      }
+
+      //  Primitive specialisation, storing the tree in arrays without boxing the values
+      SortedLongList timestamps = new SortedLongList();
+      timestamps.add(30L);
+      timestamps.add(10L);
+      timestamps.add(20L);
+      System.out.println("Timestamp at index 1 is :" + timestamps.get(1));  //  Prints 20
+      System.out.println("Largest timestamp strictly less than 30 is :" + timestamps.lower(30L));  //  Prints 20
+
+      //  The same for int values, taking half the memory per value
+      SortedIntList scores = new SortedIntList();
+      scores.add(70);
+      scores.add(90);
+      scores.add(80);
+      System.out.println("Score at index 0 is :" + scores.get(0));  //  Prints 70
+      System.out.println("Largest score strictly less than 85 is :" + scores.lower(85));  //  Prints 80
+      System.out.println("Position of 90 in ascending order is :" + scores.findInOrderPosition(90));  //  Prints 2
+
+      //  Keep the tree in a memory-mapped file, so reopening the file gives back the list without rebuilding it
+      java.nio.file.Path treeFile = java.nio.file.Files.createTempFile("sortedlist", ".tree");
+      treeFile.toFile().deleteOnExit();
+      try (OffHeapSortedLongList mapped = OffHeapSortedLongList.open(treeFile)) {
+        for (long value = 50; value >= 10; value -= 10)
+          mapped.add(value);
+        mapped.force();  //  Written through to the file, close would also do it
+      }
+      try (OffHeapSortedLongList reopened = OffHeapSortedLongList.open(treeFile)) {
+        System.out.println("Reopened list is :" + reopened + ", size :" + reopened.size());  //  Prints [10, 20, 30, 40, 50] and 5
+        System.out.println("Value at index 2 is :" + reopened.get(2));  //  Prints 30
+        System.out.println("Largest value strictly less than 45 is :" + reopened.lower(45L));  //  Prints 40
+        System.out.println("Position of 40 in ascending order is :" + reopened.findInOrderPosition(40L));  //  Prints 3
+      }
+
       //  Find largest element strictly less than each of these inserted elements
-      System.out.println("Largest element strictly less than 1 is :" + list.lower(1));  //  Throws NullPointerException as 1 itself is the minimum value
+      System.out.println("Largest element strictly less than 1 is :" + list.lower(1));  //  Prints null as 1 itself is the minimum value
       System.out.println("Largest element strictly less than 3 is :" + list.lower(3));  //  Prints 1
       System.out.println("Largest element strictly less than 5 is :" + list.lower(5));  //  Prints 3
       System.out.println("Largest element strictly less than 7 is :" + list.lower(7));  //  Prints 5
       System.out.println("Largest element strictly less than 9 is :" + list.lower(9));  //  Prints 7
+
+      //  Find the neighbours of a value which may or may not be in the list
+      System.out.println("Smallest element greater than or equal to 4 is :" + list.ceiling(4));  //  Prints 5
+      System.out.println("Smallest element strictly greater than 5 is :" + list.higher(5));  //  Prints 7
+      System.out.println("Largest element less than or equal to 6 is :" + list.floor(6));  //  Prints 5
+
+      //  Views over a range of values, backed by the list
+      List<Integer> range = list.subList(3, true, 8, false);
+      System.out.println("Elements in [3, 8) are :" + range + ", count :" + range.size());  //  Prints [3, 5, 7] and 3
+      System.out.println("Elements greater than 5 are :" + list.tailList(5, false));  //  Prints [7, 9]
+
+      //  Write the list to a channel in a compact binary form and read it back into another list
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      list.writeTo(java.nio.channels.Channels.newChannel(bytes), ElementCodec.INTEGER);
+      SortedList<Integer> copy = new SortedList<Integer>(Comparator.<Integer>naturalOrder());
+      copy.readFrom(java.nio.channels.Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), ElementCodec.INTEGER);
+      System.out.println("Read back " + copy + " from " + bytes.size() + " bytes");  //  Prints [1, 3, 5, 7, 9] and 28
  
   }
 }  
\ No newline at end of file
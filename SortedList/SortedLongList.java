@@ -0,0 +1,400 @@
+//  SortedList specialised for primitive long values.
+//  The AVL tree is kept in parallel primitive arrays (struct-of-arrays) rather than in Node objects,
+//  node i being described by values[i], leftChild[i], rightChild[i], parent[i], height[i] and
+//  subTreeSize[i].  Removed slots are chained into a free-list and reused by later insertions, so
+//  the heap holds a handful of arrays whatever the number of elements and no value is ever boxed.
+//  Supports the same operations as SortedList: add, remove, contains, get, lower and findInOrderPosition.
+//  This file and SortedIntList.java are the same code with int and long swapped, so any change to
+//  one of them has to be made to the other as well.
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class SortedLongList {
+
+  //index used in place of a null child, parent or root..
+  private static final int NIL = -1;
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private long[] values;
+  private int[] leftChild;
+  private int[] rightChild;
+  private int[] parent;
+  private byte[] height; //height of the subtree rooted at a node, 1 for a leaf..
+  private int[] subTreeSize; //number of nodes in the subtree rooted at a node, including itself..
+
+  private int root = NIL;
+  private int freeList = NIL; //first free slot, further free slots are chained through leftChild..
+  private int slotsUsed; //slots at or above this index have never been handed out..
+
+    /**
+     * Constructs a new, empty {@code SortedLongList}.
+     */
+    public SortedLongList(){
+      this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new, empty {@code SortedLongList} with room for the given number of elements
+     * before its arrays need to grow.
+     *
+     * @param initialCapacity the number of elements to allocate space for.
+     * @throws IllegalArgumentException in the case that the capacity is negative.
+     */
+    public SortedLongList(int initialCapacity){
+      if(initialCapacity < 0){
+          throw new IllegalArgumentException(initialCapacity + " is not a valid capacity.");
+      }
+      values = new long[initialCapacity];
+      leftChild = new int[initialCapacity];
+      rightChild = new int[initialCapacity];
+      parent = new int[initialCapacity];
+      height = new byte[initialCapacity];
+      subTreeSize = new int[initialCapacity];
+    }
+
+    /**
+     * Inserts the given value into this {@code SortedLongList}, equal values are placed after
+     * those already in the list.  Works in time <i>O(log(n))</i>.
+     *
+     * @param value the value to add.
+     * @return true, as the list is always altered.
+     */
+    public boolean add(long value){
+        int node = allocateNode(value);
+        if(root == NIL){
+            root = node;
+            return true;
+        }
+
+        int current = root;
+        while(true){
+            if(value < values[current]){
+                if(leftChild[current] == NIL){
+                    leftChild[current] = node;
+                    break;
+                }
+                current = leftChild[current];
+            } else {
+                if(rightChild[current] == NIL){
+                    rightChild[current] = node;
+                    break;
+                }
+                current = rightChild[current];
+            }
+        }
+        parent[node] = current;
+        rebalanceTree(current);
+        return true;
+    }
+
+    /**
+     * Removes one occurrence of the given value from this {@code SortedLongList}, if present.
+     * Works in time <i>O(log(n))</i>.
+     *
+     * @param value the value to remove.
+     * @return <code>true</code> if the value was found and removed, <code>false</code> otherwise.
+     */
+    public boolean remove(long value){
+        int toRemove = findNodeWithValue(value);
+        if(toRemove == NIL){
+            return false;
+        }
+        if(leftChild[toRemove] != NIL && rightChild[toRemove] != NIL){
+            //move the successor's value here, then remove the successor which has at most one child..
+            int successor = rightChild[toRemove];
+            while(leftChild[successor] != NIL){
+                successor = leftChild[successor];
+            }
+            values[toRemove] = values[successor];
+            toRemove = successor;
+        }
+
+        int child = (leftChild[toRemove] != NIL) ? leftChild[toRemove] : rightChild[toRemove];
+        int parentOfRemoved = parent[toRemove];
+        replaceChild(parentOfRemoved, toRemove, child);
+        freeNode(toRemove);
+        rebalanceTree(parentOfRemoved);
+        return true;
+    }
+
+    /**
+     * Returns whether or not the given value is present in this {@code SortedLongList}.
+     * Works in time <i>O(log(n))</i>.
+     *
+     * @param value the value to check for.
+     * @return true if the given value is present in this list.
+     */
+    public boolean contains(long value){
+        return findNodeWithValue(value) != NIL;
+    }
+
+    /**
+     * Returns the value at the given index, that is the "index"th smallest value, counting
+     * from 0-<i>n</i>-1.  Works in time <i>O(log(n))</i>.
+     *
+     * @param index the index of the value to get.
+     * @return the value at the given index in this list.
+     * @throws IllegalArgumentException in the case that the index is not a valid index.
+     */
+    public long get(int index){
+        if(index < 0 || index >= size()){
+            throw new IllegalArgumentException(index + " is not valid index.");
+        }
+        int current = root;
+        while(true){
+            int smallerInSubTree = sizeOf(leftChild[current]);
+            if(index < smallerInSubTree){ //go left..
+                current = leftChild[current];
+            } else if(index == smallerInSubTree){
+                return values[current];
+            } else { //go right..
+                index -= smallerInSubTree + 1;
+                current = rightChild[current];
+            }
+        }
+    }
+
+    /**
+     * Returns the largest value strictly less than the given value.
+     *
+     * @param value the value to search for.
+     * @return largest value strictly less than given value.
+     * @throws NoSuchElementException in the case there is no value less than the given value.
+     */
+    public long lower(long value){
+        int candidate = NIL;
+        int current = root;
+        while(current != NIL){
+            if(values[current] < value){
+                candidate = current;
+                current = rightChild[current];
+            } else {
+                current = leftChild[current];
+            }
+        }
+        if(candidate == NIL){
+            throw new NoSuchElementException("No value less than " + value);
+        }
+        return values[candidate];
+    }
+
+    /**
+     * Returns the position of the first occurrence of the given value in ascending order.  If the
+     * value is absent, the position of the largest value smaller than it is returned, which is
+     * -1 when there is no such value.
+     *
+     * @param value the value to search for.
+     * @return position of the value in ascending order.
+     */
+    public int findInOrderPosition(long value){
+        int smaller = 0;
+        boolean found = false;
+        int current = root;
+        while(current != NIL){
+            if(values[current] < value){
+                smaller += sizeOf(leftChild[current]) + 1;
+                current = rightChild[current];
+            } else {
+                found |= values[current] == value;
+                current = leftChild[current];
+            }
+        }
+        return found ? smaller : smaller - 1;
+    }
+
+    /**
+     * Returns the number of values in this {@code SortedLongList}.
+     *
+     * @return the number of values stored in this list.
+     */
+    public int size(){
+        return sizeOf(root);
+    }
+
+    /**
+     * Returns whether or not the list contains any values.
+     *
+     * @return {@code true} if the list has no values in it and {@code false} otherwise.
+     */
+    public boolean isEmpty(){
+        return root == NIL;
+    }
+
+    /**
+     * Removes all values from the list, leaving it empty.  The arrays are kept for reuse.
+     */
+    public void clear(){
+        root = NIL;
+        freeList = NIL;
+        slotsUsed = 0;
+    }
+
+    /**
+     * Returns the values in this list in ascending order.
+     *
+     * @return a new array holding the values in ascending order.
+     */
+    public long[] toArray(){
+        long[] result = new long[size()];
+        int i = 0;
+        int current = (root == NIL) ? NIL : smallestNodeInSubTree(root);
+        while(current != NIL){
+            result[i++] = values[current];
+            current = successor(current);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString(){
+        return Arrays.toString(toArray());
+    }
+
+    //Returns any node holding the given value, or NIL..
+    private int findNodeWithValue(long value){
+        int current = root;
+        while(current != NIL && values[current] != value){
+            current = (values[current] < value) ? rightChild[current] : leftChild[current];
+        }
+        return current;
+    }
+
+    private int smallestNodeInSubTree(int node){
+        while(leftChild[node] != NIL){
+            node = leftChild[node];
+        }
+        return node;
+    }
+
+    private int successor(int node){
+        if(rightChild[node] != NIL){
+            return smallestNodeInSubTree(rightChild[node]);
+        }
+        int current = node;
+        while(parent[current] != NIL && rightChild[parent[current]] == current){
+            current = parent[current];
+        }
+        return parent[current];
+    }
+
+    private int sizeOf(int node){
+        return (node == NIL) ? 0 : subTreeSize[node];
+    }
+
+    private int heightOf(int node){
+        return (node == NIL) ? 0 : height[node];
+    }
+
+    private int balanceFactor(int node){
+        return heightOf(leftChild[node]) - heightOf(rightChild[node]);
+    }
+
+    private void updateCachedValues(int node){
+        height[node] = (byte) (1 + Math.max(heightOf(leftChild[node]), heightOf(rightChild[node])));
+        subTreeSize[node] = 1 + sizeOf(leftChild[node]) + sizeOf(rightChild[node]);
+    }
+
+    //Points the parent's link to oldChild (or the root) at newChild instead..
+    private void replaceChild(int parentNode, int oldChild, int newChild){
+        if(newChild != NIL){
+            parent[newChild] = parentNode;
+        }
+        if(parentNode == NIL){
+            root = newChild;
+        } else if(leftChild[parentNode] == oldChild){
+            leftChild[parentNode] = newChild;
+        } else {
+            rightChild[parentNode] = newChild;
+        }
+    }
+
+    //AVL rebalancing starting at the given node and working up to the root..
+    private void rebalanceTree(int node){
+        while(node != NIL){
+            updateCachedValues(node);
+            int balanceFactor = balanceFactor(node);
+            if(balanceFactor > 1){ //left side higher than the right.
+                if(balanceFactor(leftChild[node]) < 0){ //need to do a double rotation..
+                    rotateLeft(leftChild[node]);
+                }
+                node = rotateRight(node);
+            } else if(balanceFactor < -1){ //the right side is higher than the left.
+                if(balanceFactor(rightChild[node]) > 0){ //need to do a double rotation..
+                    rotateRight(rightChild[node]);
+                }
+                node = rotateLeft(node);
+            }
+            node = parent[node];
+        }
+    }
+
+    //Rotates the right child of the given node into its place, returning that child..
+    private int rotateLeft(int node){
+        int pivot = rightChild[node];
+        rightChild[node] = leftChild[pivot];
+        if(leftChild[pivot] != NIL){
+            parent[leftChild[pivot]] = node;
+        }
+        replaceChild(parent[node], node, pivot);
+        leftChild[pivot] = node;
+        parent[node] = pivot;
+        updateCachedValues(node);
+        updateCachedValues(pivot);
+        return pivot;
+    }
+
+    //Rotates the left child of the given node into its place, returning that child..
+    private int rotateRight(int node){
+        int pivot = leftChild[node];
+        leftChild[node] = rightChild[pivot];
+        if(rightChild[pivot] != NIL){
+            parent[rightChild[pivot]] = node;
+        }
+        replaceChild(parent[node], node, pivot);
+        rightChild[pivot] = node;
+        parent[node] = pivot;
+        updateCachedValues(node);
+        updateCachedValues(pivot);
+        return pivot;
+    }
+
+    //Hands out a slot for a new leaf, preferring the free-list over fresh slots..
+    private int allocateNode(long value){
+        int node;
+        if(freeList != NIL){
+            node = freeList;
+            freeList = leftChild[node];
+        } else {
+            if(slotsUsed == values.length){
+                grow();
+            }
+            node = slotsUsed++;
+        }
+        values[node] = value;
+        leftChild[node] = NIL;
+        rightChild[node] = NIL;
+        parent[node] = NIL;
+        height[node] = 1;
+        subTreeSize[node] = 1;
+        return node;
+    }
+
+    private void freeNode(int node){
+        leftChild[node] = freeList;
+        freeList = node;
+    }
+
+    private void grow(){
+        int oldCapacity = values.length;
+        if(oldCapacity == Integer.MAX_VALUE){
+            throw new IllegalStateException("SortedLongList can not hold more than " + oldCapacity + " values.");
+        }
+        int newCapacity = (int) Math.min(Integer.MAX_VALUE, oldCapacity + (oldCapacity >> 1) + 1L);
+        values = Arrays.copyOf(values, newCapacity);
+        leftChild = Arrays.copyOf(leftChild, newCapacity);
+        rightChild = Arrays.copyOf(rightChild, newCapacity);
+        parent = Arrays.copyOf(parent, newCapacity);
+        height = Arrays.copyOf(height, newCapacity);
+        subTreeSize = Arrays.copyOf(subTreeSize, newCapacity);
+    }
+}